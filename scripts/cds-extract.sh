@@ -0,0 +1,33 @@
+#!/bin/sh
+# Unpacks the Spring Boot fat jar into a CDS-friendly layout:
+#   <out>/app.jar   application classes + resources, Main-Class and Class-Path in the manifest
+#   <out>/lib/*.jar dependencies
+# CDS can only archive classes loaded from plain jars on the class path, not from
+# nested jars, so the training run and the real launch both use `java -jar <out>/app.jar`.
+#
+# usage: scripts/cds-extract.sh target/history-service-*.jar target/cds
+set -eu
+
+fat_jar=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+out=$2
+
+work=$(mktemp -d)
+trap 'rm -rf "$work"' EXIT
+
+(cd "$work" && jar xf "$fat_jar")
+
+rm -rf "$out"
+mkdir -p "$out/lib"
+cp "$work"/BOOT-INF/lib/*.jar "$out/lib/"
+
+main_class=$(sed -n 's/^Start-Class: *//p' "$work/META-INF/MANIFEST.MF" | tr -d '\r')
+class_path=$(cd "$out" && ls lib/*.jar | sort | tr '\n' ' ')
+
+# manifest lines are limited to 72 bytes; continuation lines start with a space
+{
+    echo "Main-Class: $main_class"
+    echo "Class-Path: $class_path" | fold -w 71 | sed '2,$s/^/ /'
+} > "$work/MANIFEST.MF"
+
+jar cfm "$out/app.jar" "$work/MANIFEST.MF" -C "$work/BOOT-INF/classes" .
+echo "CDS layout written to $out (main class $main_class)"
@@ -0,0 +1,81 @@
+#!/bin/sh
+# Measures time from JVM launch to the first successful GET /ping and POST
+# /api/v1/chat/ask, for the plain fat jar and for the CDS launch used by the
+# Dockerfile. The AI service is replaced by a local stub so /ask is repeatable.
+#
+# usage: scripts/startup-benchmark.sh [runs]     (after ./mvnw package)
+set -eu
+
+runs=${1:-5}
+root=$(cd "$(dirname "$0")/.." && pwd)
+fat_jar=$(ls "$root"/target/history-service-*.jar | grep -v '\.original$' | head -n 1)
+cds_dir="$root/target/cds"
+app_port=18080
+stub_port=18000
+
+if [ ! -f "$cds_dir/app.jsa" ] || [ "$fat_jar" -nt "$cds_dir/app.jsa" ]; then
+    "$root/scripts/cds-extract.sh" "$fat_jar" "$cds_dir"
+    (cd "$cds_dir" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+        -jar app.jar > /dev/null 2>&1)
+fi
+
+python3 - "$stub_port" <<'PY' &
+import http.server, sys
+BODY = b'{"query":"q","intent":"person","answer":"Tran Hung Dao","events":[],"no_data":false}'
+class Stub(http.server.BaseHTTPRequestHandler):
+    def do_POST(self):
+        self.rfile.read(int(self.headers.get("Content-Length", 0)))
+        self.send_response(200)
+        self.send_header("Content-Type", "application/json")
+        self.send_header("Content-Length", str(len(BODY)))
+        self.end_headers()
+        self.wfile.write(BODY)
+    def log_message(self, *args):
+        pass
+http.server.ThreadingHTTPServer(("127.0.0.1", int(sys.argv[1])), Stub).serve_forever()
+PY
+stub_pid=$!
+trap 'kill $stub_pid 2>/dev/null || true' EXIT
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+wait_for() {
+    until curl -sf -o /dev/null "$@"; do sleep 0.02; done
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+measure() {
+    mode=$1
+    shift
+    ping_file=$(mktemp)
+    ask_file=$(mktemp)
+    i=1
+    while [ "$i" -le "$runs" ]; do
+        start=$(now_ms)
+        PORT=$app_port AI_BASE_URL="http://127.0.0.1:$stub_port" AI_HTTP_PROTOCOLS=HTTP11 \
+            java "$@" > /dev/null 2>&1 &
+        app_pid=$!
+        wait_for "http://127.0.0.1:$app_port/ping"
+        ping_ms=$(( $(now_ms) - start ))
+        wait_for -X POST -H 'Content-Type: application/json' -d '{"query":"Trần Hưng Đạo"}' \
+            "http://127.0.0.1:$app_port/api/v1/chat/ask"
+        ask_ms=$(( $(now_ms) - start ))
+        kill "$app_pid"
+        wait "$app_pid" 2>/dev/null || true
+        echo "$ping_ms" >> "$ping_file"
+        echo "$ask_ms" >> "$ask_file"
+        echo "  $mode run $i: /ping ${ping_ms} ms, /ask ${ask_ms} ms"
+        i=$((i + 1))
+    done
+    printf '%-8s median /ping %6s ms   median /ask %6s ms\n' "$mode" \
+        "$(median < "$ping_file")" "$(median < "$ask_file")" >> "$summary"
+    rm -f "$ping_file" "$ask_file"
+}
+
+summary=$(mktemp)
+measure fatjar -jar "$fat_jar"
+measure cds -XX:SharedArchiveFile="$cds_dir/app.jsa" -jar "$cds_dir/app.jar"
+echo
+cat "$summary"
+rm -f "$summary"
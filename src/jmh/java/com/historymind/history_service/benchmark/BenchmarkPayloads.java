@@ -0,0 +1,35 @@
+package com.historymind.history_service.benchmark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synthetic AI service payloads shaped like real /api/chat answers.
+ */
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    static byte[] chatResponse(int eventCount, String noDataKey) {
+        StringBuilder json = new StringBuilder(512 + eventCount * 400);
+        json.append("{\"query\":\"Trần Hưng Đạo là ai?\",\"intent\":\"definition\",")
+                .append("\"answer\":\"**Trần Hưng Đạo** (tên thật: Trần Quốc Tuấn) là danh tướng nhà Trần.\",")
+                .append("\"events\":[");
+        for (int i = 0; i < eventCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"hf_").append(100000 + i).append("\",")
+                    .append("\"year\":").append(1200 + i % 100).append(',')
+                    .append("\"event\":\"Kháng chiến chống Nguyên Mông lần ").append(i % 3 + 1).append("\",")
+                    .append("\"story\":\"Trận Chương Dương, quân Trần phản công giải phóng Thăng Long.\",")
+                    .append("\"tone\":\"heroic\",")
+                    .append("\"title\":\"Chiến thắng Chương Dương\",")
+                    .append("\"persons\":[\"Trần Hưng Đạo\",\"Trần Quang Khải\"],")
+                    .append("\"places\":[\"Thăng Long\",\"Chương Dương\"],")
+                    .append("\"keywords\":[\"kháng_chiến\",\"nguyên_mông\"]}");
+        }
+        json.append("],\"").append(noDataKey).append("\":false}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
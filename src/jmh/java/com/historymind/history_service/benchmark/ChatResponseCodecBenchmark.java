@@ -0,0 +1,75 @@
+package com.historymind.history_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.codec.ChatResponseStreamDecoder;
+import com.historymind.history_service.dto.ChatRequest;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the DTO contracts, using the same ObjectMapper setup as the WebClient codecs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatResponseCodecBenchmark {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    @Param({"0", "10", "100", "1000"})
+    public int eventCount;
+
+    @Param({"no_data", "noData"})
+    public String noDataKey;
+
+    private ObjectMapper objectMapper;
+    private ChatResponseStreamDecoder streamDecoder;
+    private byte[] payload;
+    private ChatRequest request;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        streamDecoder = new ChatResponseStreamDecoder(objectMapper);
+        payload = BenchmarkPayloads.chatResponse(eventCount, noDataKey);
+        request = new ChatRequest("Trần Hưng Đạo là ai?");
+    }
+
+    @Benchmark
+    public ChatResponse deserializeChatResponse() throws Exception {
+        return objectMapper.readValue(payload, ChatResponse.class);
+    }
+
+    @Benchmark
+    public List<ChatStreamEvent> streamDecodeChatResponse() {
+        return streamDecoder.decode(chunks()).collectList().block();
+    }
+
+    @Benchmark
+    public byte[] serializeChatRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(request);
+    }
+
+    private Flux<DataBuffer> chunks() {
+        List<DataBuffer> buffers = new ArrayList<>(payload.length / CHUNK_SIZE + 1);
+        for (int offset = 0; offset < payload.length; offset += CHUNK_SIZE) {
+            int length = Math.min(CHUNK_SIZE, payload.length - offset);
+            DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.allocateBuffer(length);
+            buffer.write(payload, offset, length);
+            buffers.add(buffer);
+        }
+        return Flux.fromIterable(buffers);
+    }
+}
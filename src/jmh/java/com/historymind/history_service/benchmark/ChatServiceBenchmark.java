@@ -0,0 +1,68 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.config.WebClientConfig;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.service.ChatService;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full {@link ChatService#processChat} path (codecs, connection pool, Netty I/O)
+ * against an in-process stand-in for the AI service. The response cache is not
+ * involved, so every invocation performs a real HTTP round trip.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChatServiceBenchmark {
+
+    @Param({"10", "100"})
+    public int eventCount;
+
+    private DisposableServer upstream;
+    private ChatService chatService;
+
+    @Setup
+    public void setUp() {
+        byte[] payload = BenchmarkPayloads.chatResponse(eventCount, "no_data");
+        upstream = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.post("/api/chat", (request, response) -> request.receive()
+                        .then(response.header("Content-Type", "application/json")
+                                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(payload)))
+                                .then())))
+                .bindNow();
+
+        WebClient webClient = new WebClientConfig().aiWebClient(
+                "http://127.0.0.1:" + upstream.port(), 3000, 20, 20, 20, 5, 30, 300, 200, 4, false,
+                new HttpProtocol[]{HttpProtocol.HTTP11}, 4, 100);
+        chatService = new ChatService(webClient);
+    }
+
+    @TearDown
+    public void tearDown() {
+        upstream.disposeNow();
+    }
+
+    @Benchmark
+    public ChatResponse processChat() {
+        return chatService.processChat("Trần Hưng Đạo là ai?").block();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ChatResponse processChatConcurrent() {
+        return chatService.processChat("Trần Hưng Đạo là ai?").block();
+    }
+}
@@ -0,0 +1,59 @@
+package com.historymind.history_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.model.CompactChatResponse;
+import com.historymind.history_service.model.SymbolTable;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retained size of a cached answer as decoded {@link ChatResponse} versus
+ * {@link CompactChatResponse}, and the cost of converting between the two.
+ * Sizes come from JOL and are printed once per fork; strings held only by the
+ * cache's symbol table are not counted, since every cached answer reuses them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventFootprintBenchmark {
+
+    @Param({"10", "100"})
+    public int eventCount;
+
+    private final SymbolTable symbols = new SymbolTable();
+    private ChatResponse decoded;
+    private CompactChatResponse compact;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        byte[] payload = BenchmarkPayloads.chatResponse(eventCount, "noData");
+        // decode twice so the table is warm, as it is for every answer after the first
+        CompactChatResponse.from(mapper.readValue(payload, ChatResponse.class), symbols);
+        decoded = mapper.readValue(payload, ChatResponse.class);
+        compact = CompactChatResponse.from(decoded, symbols);
+
+        long decodedBytes = GraphLayout.parseInstance(decoded.getEvents()).totalSize();
+        long compactBytes = GraphLayout.parseInstance(compact).totalSize()
+                - GraphLayout.parseInstance(compact.getQuery(), compact.getAnswer()).totalSize();
+        System.out.printf("%n[%d events] retained bytes/event: EventDTO %d, HistoryRecord %d%n",
+                eventCount, decodedBytes / eventCount, compactBytes / eventCount);
+    }
+
+    @Benchmark
+    public CompactChatResponse compact() {
+        return CompactChatResponse.from(decoded, symbols);
+    }
+
+    @Benchmark
+    public ChatResponse expand() {
+        return compact.toChatResponse();
+    }
+}
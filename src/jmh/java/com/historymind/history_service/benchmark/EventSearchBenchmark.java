@@ -0,0 +1,60 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.search.EventSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventSearchIndex#search} over {@code events} synthetic stories, single shard
+ * versus sharded, for an accented and an accent-free query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSearchBenchmark {
+
+    @Param({"50000"})
+    public int events;
+
+    @Param({"1", "4"})
+    public int shards;
+
+    @Param({"Trần Hưng Đạo sông Bạch Đằng", "tran hung dao bach dang"})
+    public String query;
+
+    private EventSearchIndex search;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventIndex index = new EventIndex(events, registry);
+        String[] persons = {"Trần Hưng Đạo", "Lê Lợi", "Ngô Quyền", "Lý Thường Kiệt", "Quang Trung"};
+        String[] places = {"sông Bạch Đằng", "Thăng Long", "ải Chi Lăng", "Như Nguyệt", "Đống Đa"};
+        List<EventDTO> batch = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            EventDTO dto = new EventDTO();
+            dto.setId("hf_" + i);
+            dto.setYear(i % 2000);
+            dto.setTitle("Sự kiện năm " + (i % 2000) + " tại " + places[i % places.length]);
+            dto.setStory(persons[i % persons.length] + " chỉ huy quân dân đánh giặc tại "
+                    + places[(i / 7) % places.length] + ", để lại bài học về lòng yêu nước và ý chí độc lập.");
+            batch.add(dto);
+        }
+        index.ingest(batch);
+        search = new EventSearchIndex(true, shards, index, registry);
+    }
+
+    @Benchmark
+    public List<EventSearchIndex.Hit> top20() {
+        return search.search(query, EventSearchIndex.Folding.AUTO, 20).block();
+    }
+}
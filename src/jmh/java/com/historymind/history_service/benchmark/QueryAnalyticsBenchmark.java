@@ -0,0 +1,43 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.analytics.QueryAnalytics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request-path cost of {@link QueryAnalytics#recordQuery} (normalization plus sketch
+ * update) with concurrent callers and a skewed mix of {@code distinctQueries} queries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryAnalyticsBenchmark {
+
+    @Param({"100", "100000"})
+    public int distinctQueries;
+
+    private QueryAnalytics analytics;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        analytics = new QueryAnalytics(true, 20, 2048, 4, 5, 12);
+        queries = new String[distinctQueries];
+        for (int i = 0; i < distinctQueries; i++) {
+            queries[i] = "Trận Bạch Đằng năm " + i + " diễn ra thế nào?";
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordQuery() {
+        double r = ThreadLocalRandom.current().nextDouble();
+        // cubic skew: a handful of queries take most of the traffic
+        analytics.recordQuery(queries[(int) (queries.length * r * r * r)]);
+    }
+}
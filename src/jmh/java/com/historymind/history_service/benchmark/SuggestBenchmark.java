@@ -0,0 +1,65 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.dto.Suggestion;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.search.SuggestIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SuggestIndex#suggest} over the names of {@code events} events (about 20k
+ * distinct persons, places and keywords), for a short, a longer and an accented prefix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SuggestBenchmark {
+
+    @Param({"50000"})
+    public int events;
+
+    @Param({"t", "tran h", "Trần"})
+    public String prefix;
+
+    private SuggestIndex suggest;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventIndex index = new EventIndex(events, registry);
+        String[] families = {"Trần", "Lê", "Lý", "Nguyễn", "Ngô", "Đinh", "Hồ", "Phạm", "Tran", "Triệu"};
+        String[] names = {"Hưng Đạo", "Nhân Tông", "Thủ Độ", "Lợi", "Quyền", "Thường Kiệt", "Huệ", "Trãi"};
+        List<EventDTO> batch = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            EventDTO dto = new EventDTO();
+            dto.setId("hf_" + i);
+            dto.setPersons(List.of(families[i % families.length] + " " + names[(i / 10) % names.length] + " " + (i % 997)));
+            dto.setPlaces(List.of("Thành " + (i % 5003)));
+            dto.setKeywords(List.of("từ khóa " + (i % 7919)));
+            batch.add(dto);
+        }
+        index.ingest(batch);
+        suggest = new SuggestIndex(true, 3_600_000, index, registry);
+        while (suggest.suggest("thanh", 1).isEmpty()) {
+            Thread.sleep(10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        suggest.close();
+    }
+
+    @Benchmark
+    public List<Suggestion> top10() {
+        return suggest.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,69 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.index.EventIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventIndex#timeline} over a century of a full index ({@code events} spread
+ * across 2000 years), with and without a person filter.
+ * <p>
+ * {@code ingestThenCentury} changes one event before each query, so it includes the
+ * snapshot rebuild that every ingest costs. The production index pays it on a
+ * background thread rather than in the read, but the CPU is spent either way.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimelineBenchmark {
+
+    @Param({"50000"})
+    public int events;
+
+    @Param({"", "Trần Hưng Đạo"})
+    public String person;
+
+    private EventIndex index;
+    private int ingests;
+
+    @Setup
+    public void setUp() {
+        index = new EventIndex(events, new SimpleMeterRegistry());
+        String[] persons = {"Trần Hưng Đạo", "Lê Lợi", "Ngô Quyền", "Lý Thường Kiệt", "Quang Trung"};
+        List<EventDTO> batch = new ArrayList<>(events);
+        for (int i = 0; i < events; i++) {
+            EventDTO dto = new EventDTO();
+            dto.setId("hf_" + i);
+            dto.setYear(i % 2000);
+            dto.setPersons(List.of(persons[i % persons.length]));
+            dto.setPlaces(List.of("Thăng Long"));
+            batch.add(dto);
+        }
+        index.ingest(batch);
+        index.timeline(null, null, null, null, null, 1);
+    }
+
+    @Benchmark
+    public EventIndex.TimelinePage century() {
+        return index.timeline(1200, 1299, person.isEmpty() ? null : person, null, null, 1000);
+    }
+
+    @Benchmark
+    public EventIndex.TimelinePage ingestThenCentury() {
+        EventDTO changed = new EventDTO();
+        changed.setId("hf_0");
+        changed.setYear(0);
+        changed.setStory("revision " + ingests++);
+        changed.setPersons(List.of("Trần Hưng Đạo"));
+        index.ingest(List.of(changed));
+        return index.timeline(1200, 1299, person.isEmpty() ? null : person, null, null, 1000);
+    }
+}
@@ -0,0 +1,89 @@
+package com.historymind.history_service.benchmark;
+
+import com.historymind.history_service.config.WebClientConfig;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.service.ChatService;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/1.1 versus cleartext HTTP/2 (h2c) to the AI service under concurrent load.
+ * Each operation fires {@code concurrency} distinct chat calls at a stand-in that
+ * answers after {@code upstreamDelayMs}; the number of TCP connections the stand-in
+ * accepted is printed after every iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UpstreamProtocolBenchmark {
+
+    @Param({"HTTP11", "H2C"})
+    public String protocol;
+
+    @Param({"64"})
+    public int concurrency;
+
+    @Param({"20"})
+    public int upstreamDelayMs;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger queryCounter = new AtomicInteger();
+
+    private DisposableServer upstream;
+    private ChatService chatService;
+
+    @Setup
+    public void setUp() {
+        byte[] payload = BenchmarkPayloads.chatResponse(10, "no_data");
+        upstream = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .doOnChannelInit((observer, channel, remoteAddress) -> connections.incrementAndGet())
+                .route(routes -> routes.post("/api/chat", (request, response) -> request.receive()
+                        .then(Mono.delay(Duration.ofMillis(upstreamDelayMs)))
+                        .then(response.header("Content-Type", "application/json")
+                                .send(Mono.fromSupplier(() -> Unpooled.wrappedBuffer(payload)))
+                                .then())))
+                .bindNow();
+
+        WebClient webClient = new WebClientConfig().aiWebClient(
+                "http://127.0.0.1:" + upstream.port(), 3000, 20, 20, 20, 5, 30, 300, 200, 4, false,
+                new HttpProtocol[]{HttpProtocol.valueOf(protocol)}, 4, 100);
+        chatService = new ChatService(webClient);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportConnections() {
+        System.out.printf("%n[%s] upstream connections opened so far: %d%n", protocol, connections.get());
+    }
+
+    @TearDown
+    public void tearDown() {
+        upstream.disposeNow();
+    }
+
+    @Benchmark
+    public List<ChatResponse> concurrentChats() {
+        // distinct queries so single-flight does not collapse the burst
+        int base = queryCounter.getAndAdd(concurrency);
+        return Flux.range(base, concurrency)
+                .flatMap(i -> chatService.processChat("Sự kiện số " + i), concurrency)
+                .collectList()
+                .block();
+    }
+}
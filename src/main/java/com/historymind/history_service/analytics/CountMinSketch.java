@@ -0,0 +1,69 @@
+package com.historymind.history_service.analytics;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size frequency sketch: {@code depth} rows of {@code width} counters, each
+ * key adding one to a counter per row. The estimate is the smallest of its counters,
+ * so it never undercounts and overcounts by at most {@code total * e / width} with
+ * probability {@code 1 - e^-depth}. Updates are single atomic adds; no locks.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    /** {@code width} is rounded up to a power of two. */
+    public CountMinSketch(int width, int depth) {
+        int rowWidth = Integer.highestOneBit((Math.max(16, width) - 1) << 1);
+        this.depth = Math.max(1, depth);
+        this.mask = rowWidth - 1;
+        this.counters = new AtomicLongArray(rowWidth * this.depth);
+    }
+
+    /** Counts one occurrence and returns the new estimate for {@code key}. */
+    public long add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = counters.incrementAndGet(index(row, h1, h2));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    public long estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    private int index(int row, int h1, int h2) {
+        // Kirsch–Mitzenmacher: row hashes derived from two independent halves
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+    private static long hash(String key) {
+        // FNV-1a over UTF-8 bytes, then a murmur finalizer to spread the high bits
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,160 @@
+package com.historymind.history_service.analytics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Most frequent keys over a sliding window, in bounded memory. Time is cut into
+ * {@code buckets} buckets of {@code bucketNanos}; each holds a {@link CountMinSketch}
+ * and a small candidate set of keys whose estimate reached the set's admission
+ * threshold. A window of n buckets sums each candidate's estimate over the last n.
+ * <p>
+ * Recording is lock-free apart from the occasional candidate insert, and when the
+ * candidate set outgrows its bound one caller prunes it back while others carry on.
+ */
+public final class HeavyHitters {
+
+    /** A key and its estimated count; estimates may overcount, never undercount. */
+    public record Entry(String key, long count) {
+    }
+
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final long bucketNanos;
+    private final LongSupplier clock;
+    private final AtomicReferenceArray<Bucket> ring;
+
+    public HeavyHitters(int capacity, int width, int depth, long bucketNanos, int buckets, LongSupplier clock) {
+        this.width = width;
+        this.depth = depth;
+        this.capacity = Math.max(1, capacity);
+        this.bucketNanos = bucketNanos;
+        this.clock = clock;
+        this.ring = new AtomicReferenceArray<>(Math.max(1, buckets));
+    }
+
+    public int buckets() {
+        return ring.length();
+    }
+
+    public void record(String key) {
+        current().record(key);
+    }
+
+    /** Top {@code limit} keys over the most recent {@code windowBuckets} buckets, current one included. */
+    public List<Entry> top(int windowBuckets, int limit) {
+        List<Bucket> window = window(windowBuckets);
+        Set<String> keys = new HashSet<>();
+        for (Bucket bucket : window) {
+            keys.addAll(bucket.candidates.keySet());
+        }
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            long count = 0;
+            for (Bucket bucket : window) {
+                count += bucket.sketch.estimate(key);
+            }
+            entries.add(new Entry(key, count));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparing(Entry::key));
+        return entries.size() > limit ? List.copyOf(entries.subList(0, limit)) : entries;
+    }
+
+    /** Exact number of recorded keys over the window. */
+    public long total(int windowBuckets) {
+        long total = 0;
+        for (Bucket bucket : window(windowBuckets)) {
+            total += bucket.total.sum();
+        }
+        return total;
+    }
+
+    private List<Bucket> window(int windowBuckets) {
+        long epoch = clock.getAsLong() / bucketNanos;
+        int span = Math.max(1, Math.min(windowBuckets, ring.length()));
+        List<Bucket> window = new ArrayList<>(span);
+        for (int i = 0; i < span; i++) {
+            Bucket bucket = ring.get(slot(epoch - i));
+            if (bucket != null && bucket.epoch == epoch - i) {
+                window.add(bucket);
+            }
+        }
+        return window;
+    }
+
+    private Bucket current() {
+        long epoch = clock.getAsLong() / bucketNanos;
+        int slot = slot(epoch);
+        while (true) {
+            Bucket bucket = ring.get(slot);
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            Bucket fresh = new Bucket(epoch, new CountMinSketch(width, depth));
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length());
+    }
+
+    private final class Bucket {
+
+        private final long epoch;
+        private final CountMinSketch sketch;
+        private final Map<String, Boolean> candidates = new ConcurrentHashMap<>();
+        private final LongAdder total = new LongAdder();
+        private final AtomicBoolean pruning = new AtomicBoolean();
+        private volatile long threshold;
+
+        Bucket(long epoch, CountMinSketch sketch) {
+            this.epoch = epoch;
+            this.sketch = sketch;
+        }
+
+        void record(String key) {
+            total.increment();
+            long estimate = sketch.add(key);
+            if (estimate < threshold || candidates.containsKey(key)) {
+                return;
+            }
+            candidates.put(key, Boolean.TRUE);
+            if (candidates.size() > 2 * capacity) {
+                prune();
+            }
+        }
+
+        private void prune() {
+            if (!pruning.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                List<Entry> ranked = new ArrayList<>(candidates.size());
+                for (String key : candidates.keySet()) {
+                    ranked.add(new Entry(key, sketch.estimate(key)));
+                }
+                ranked.sort(Comparator.comparingLong(Entry::count).reversed());
+                for (int i = capacity; i < ranked.size(); i++) {
+                    candidates.remove(ranked.get(i).key());
+                }
+                // only keys that could displace the weakest survivor are admitted from now on
+                threshold = ranked.get(capacity - 1).count() + 1;
+            } finally {
+                pruning.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.historymind.history_service.analytics;
+
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.dto.EventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Streaming traffic analytics: the most asked (normalized) queries and the persons
+ * and places most often served, each over sliding windows. Memory is fixed by the
+ * sketch size, the bucket count and {@code top-k}, however many distinct keys arrive.
+ */
+@Component
+public class QueryAnalytics {
+
+    /** Keys longer than this are cut so one pathological query cannot hog a candidate slot. */
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final boolean enabled;
+    private final int topK;
+    private final Duration bucketLength;
+    private final HeavyHitters queries;
+    private final HeavyHitters persons;
+    private final HeavyHitters places;
+
+    @Autowired
+    public QueryAnalytics(
+            @Value("${ai.analytics.enabled:true}") boolean enabled,
+            @Value("${ai.analytics.top-k:20}") int topK,
+            @Value("${ai.analytics.sketch-width:2048}") int sketchWidth,
+            @Value("${ai.analytics.sketch-depth:4}") int sketchDepth,
+            @Value("${ai.analytics.bucket-minutes:5}") long bucketMinutes,
+            @Value("${ai.analytics.buckets:12}") int buckets
+    ) {
+        this(enabled, topK, sketchWidth, sketchDepth, Duration.ofMinutes(bucketMinutes), buckets, System::nanoTime);
+    }
+
+    QueryAnalytics(boolean enabled, int topK, int sketchWidth, int sketchDepth, Duration bucketLength,
+                   int buckets, LongSupplier clock) {
+        this.enabled = enabled;
+        this.topK = Math.max(1, topK);
+        this.bucketLength = bucketLength;
+        long bucketNanos = Math.max(1, bucketLength.toNanos());
+        // keep a few more candidates than reported so ranks near the cut stay accurate
+        int capacity = this.topK * 4;
+        this.queries = new HeavyHitters(capacity, sketchWidth, sketchDepth, bucketNanos, buckets, clock);
+        this.persons = new HeavyHitters(capacity, sketchWidth, sketchDepth, bucketNanos, buckets, clock);
+        this.places = new HeavyHitters(capacity, sketchWidth, sketchDepth, bucketNanos, buckets, clock);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void recordQuery(String query) {
+        if (!enabled) {
+            return;
+        }
+        String key = QueryNormalizer.normalize(query);
+        if (key != null) {
+            queries.record(truncate(key));
+        }
+    }
+
+    public void recordEvents(List<EventDTO> events) {
+        if (!enabled || events == null) {
+            return;
+        }
+        for (EventDTO event : events) {
+            recordEvent(event);
+        }
+    }
+
+    public void recordEvent(EventDTO event) {
+        if (!enabled || event == null) {
+            return;
+        }
+        recordAll(persons, event.getPersons());
+        recordAll(places, event.getPlaces());
+    }
+
+    /**
+     * Top {@code limit} keys per dimension over the last bucket, the last three and
+     * the whole ring, labelled by their length in minutes (e.g. {@code 5m}).
+     */
+    public Map<String, Object> report(int limit) {
+        int k = Math.max(1, Math.min(limit, topK));
+        Map<String, Object> windows = new LinkedHashMap<>();
+        for (int span : windowSpans()) {
+            Map<String, Object> window = new LinkedHashMap<>();
+            window.put("queries", queries.total(span));
+            window.put("topQueries", queries.top(span, k));
+            window.put("topPersons", persons.top(span, k));
+            window.put("topPlaces", places.top(span, k));
+            windows.put(bucketLength.multipliedBy(span).toMinutes() + "m", window);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", enabled);
+        report.put("windows", windows);
+        return report;
+    }
+
+    private List<Integer> windowSpans() {
+        int all = queries.buckets();
+        return Stream.of(1, Math.min(3, all), all).distinct().toList();
+    }
+
+    private static void recordAll(HeavyHitters hitters, List<String> names) {
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                hitters.record(truncate(name.strip()));
+            }
+        }
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+}
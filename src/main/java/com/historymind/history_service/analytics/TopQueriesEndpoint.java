@@ -0,0 +1,31 @@
+package com.historymind.history_service.analytics;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/topqueries[?limit=n]}: heavy-hitter queries, persons and
+ * places from {@link QueryAnalytics}, for sizing and pre-warming the caches.
+ * The report contains raw user questions, so the endpoint is not exposed over HTTP
+ * by default; operators opt in through {@code MANAGEMENT_EXPOSURE} behind their own
+ * access control.
+ */
+@Component
+@Endpoint(id = "topqueries")
+public class TopQueriesEndpoint {
+
+    private final QueryAnalytics analytics;
+
+    public TopQueriesEndpoint(QueryAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    @ReadOperation
+    public Map<String, Object> topQueries(@Nullable Integer limit) {
+        return analytics.report(limit == null ? Integer.MAX_VALUE : limit);
+    }
+}
@@ -0,0 +1,405 @@
+package com.historymind.history_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.historymind.history_service.dto.ChatResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped store of AI answers that survives restarts; sits behind
+ * {@link ResponseCache} as a second level. Only keys and offsets live on the heap, and
+ * a hit decodes just that record straight from the mapped segment.
+ * <p>
+ * Segments are preallocated files, written and read through one mapping each. When
+ * there are too many, the oldest is compacted: its still-current, unexpired records
+ * are copied forward and the file is deleted. All writes, the startup scan and
+ * compaction run on a single background thread, so startup never waits for the disk.
+ * <p>
+ * Record layout: {@code int length | int crc32 | long writtenAtMillis | short keyLength | key | json}.
+ * A zero length marks the end of a segment; a bad checksum ends the scan of that segment.
+ */
+@Component
+@Slf4j
+public class AnswerStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 2;
+    private static final int MAX_KEY_BYTES = 4096;
+    // a segment is one mapping, and a MappedByteBuffer holds at most Integer.MAX_VALUE bytes
+    static final int MAX_SEGMENT_SIZE_MB = Integer.MAX_VALUE / (1024 * 1024);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long ttlMillis;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>();
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ExecutorService writer;
+    private volatile boolean loaded;
+
+    private Counter hits;
+    private Counter misses;
+
+    @Autowired
+    public AnswerStore(
+            @Value("${ai.store.enabled:false}") boolean enabled,
+            @Value("${ai.store.dir:./data/answer-store}") String directory,
+            @Value("${ai.store.segment-size-mb:16}") int segmentSizeMb,
+            @Value("${ai.store.max-segments:8}") int maxSegments,
+            @Value("${ai.store.ttl-hours:24}") long ttlHours,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, Path.of(directory), segmentBytes(segmentSizeMb), maxSegments,
+                Duration.ofHours(ttlHours), objectMapper, meterRegistry);
+    }
+
+    AnswerStore(boolean enabled, Path directory, int segmentBytes, int maxSegments, Duration ttl,
+                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        if (enabled && segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segment size of " + segmentBytes + " bytes cannot hold a record");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.ttlMillis = ttl.toMillis();
+        this.objectMapper = objectMapper;
+        if (!enabled) {
+            this.writer = null;
+            return;
+        }
+
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "answer-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.hits = Counter.builder("chat.store.requests").tag("result", "hit")
+                .description("Answer store lookups").register(meterRegistry);
+        this.misses = Counter.builder("chat.store.requests").tag("result", "miss")
+                .description("Answer store lookups").register(meterRegistry);
+        Gauge.builder("chat.store.entries", index, ConcurrentHashMap::size)
+                .description("Answers currently indexed in the on-disk store")
+                .register(meterRegistry);
+        Gauge.builder("chat.store.segments", segments, List::size)
+                .description("Mapped answer store segment files")
+                .register(meterRegistry);
+
+        writer.execute(this::load);
+    }
+
+    static int segmentBytes(int segmentSizeMb) {
+        if (segmentSizeMb < 1 || segmentSizeMb > MAX_SEGMENT_SIZE_MB) {
+            throw new IllegalArgumentException("ai.store.segment-size-mb must be between 1 and "
+                    + MAX_SEGMENT_SIZE_MB + " but was " + segmentSizeMb);
+        }
+        return Math.toIntExact(segmentSizeMb * 1024L * 1024L);
+    }
+
+    public static AnswerStore disabled() {
+        return new AnswerStore(false, Path.of("."), 0, 0, Duration.ZERO, null, null);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Returns the stored answer, or null while loading, on a miss, or when expired. */
+    public ChatResponse get(String key) {
+        return get(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #get(String)}, but only returns the answer if its latest record was
+     * written at or before {@code writtenUpToMillis}. Reads the mapped file and decodes
+     * JSON, so keep it off event-loop threads.
+     */
+    public ChatResponse get(String key, long writtenUpToMillis) {
+        if (!enabled || !loaded || key == null) {
+            return null;
+        }
+        Location location = index.get(key);
+        if (location == null || location.writtenAtMillis > writtenUpToMillis
+                || isExpired(location.writtenAtMillis)) {
+            misses.increment();
+            return null;
+        }
+        ByteBuffer json = location.segment.buffer.slice(location.valueOffset, location.valueLength);
+        try {
+            ChatResponse response = objectMapper.readValue(new ByteBufferBackedInputStream(json), ChatResponse.class);
+            hits.increment();
+            return response;
+        } catch (IOException e) {
+            log.warn("⚠️ Unreadable answer store record for key {}", key, e);
+            index.remove(key, location);
+            misses.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Whether {@link #get(String, long)} could return an answer; only consults the index,
+     * so it is cheap enough for any thread and does not count as a hit or miss.
+     */
+    public boolean contains(String key, long writtenUpToMillis) {
+        if (!enabled || !loaded || key == null) {
+            return false;
+        }
+        Location location = index.get(key);
+        return location != null && location.writtenAtMillis <= writtenUpToMillis
+                && !isExpired(location.writtenAtMillis);
+    }
+
+    /** Queues the answer for appending; returns immediately. */
+    public void put(String key, ChatResponse response) {
+        if (!enabled || key == null || response == null) {
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_BYTES) {
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                byte[] value = objectMapper.writeValueAsBytes(response);
+                append(keyBytes, value, System.currentTimeMillis(), true);
+            } catch (IOException | RuntimeException e) {
+                log.warn("⚠️ Failed to persist answer for key {}", key, e);
+            }
+        });
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /** Waits for queued writes and the startup scan; for tests and shutdown. */
+    void awaitWrites() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            writer.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Answer store writer is stuck", e);
+        }
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        awaitWrites();
+        writer.shutdown();
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    private boolean isExpired(long writtenAtMillis) {
+        return System.currentTimeMillis() - writtenAtMillis > ttlMillis;
+    }
+
+    // --- writer thread only below ---
+
+    private void load() {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                                && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = Segment.map(file, segmentIdOf(file), Math.max(segmentBytes, (int) Files.size(file)));
+                scan(segment);
+                segments.add(segment);
+            }
+            loaded = true;
+            log.info("💾 Answer store loaded {} answers from {} segments in {} ms", index.size(), segments.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Answer store disabled: cannot load {}", directory, e);
+        }
+    }
+
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < HEADER_BYTES || position + length > buffer.capacity()
+                    || buffer.getInt(position + 4) != checksum(buffer, position, length)) {
+                break;
+            }
+            long writtenAt = buffer.getLong(position + 8);
+            int keyLength = Short.toUnsignedInt(buffer.getShort(position + 16));
+            byte[] key = new byte[keyLength];
+            buffer.get(position + HEADER_BYTES, key);
+            int valueOffset = position + HEADER_BYTES + keyLength;
+            if (!isExpired(writtenAt)) {
+                index.put(new String(key, StandardCharsets.UTF_8),
+                        new Location(segment, valueOffset, length - HEADER_BYTES - keyLength, writtenAt));
+            }
+            position += length;
+        }
+        segment.writePosition = position;
+    }
+
+    private boolean append(byte[] key, byte[] value, long writtenAtMillis, boolean mayCompact) throws IOException {
+        if (!loaded) {
+            return false;
+        }
+        int length = HEADER_BYTES + key.length + value.length;
+        if (length > segmentBytes) {
+            return false;
+        }
+        Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (active == null || active.writePosition + length > active.buffer.capacity()) {
+            if (!mayCompact && active != null) {
+                // compaction never rolls: whatever does not fit is dropped
+                return false;
+            }
+            active = roll(active);
+        }
+
+        ByteBuffer buffer = active.buffer;
+        int position = active.writePosition;
+        buffer.putLong(position + 8, writtenAtMillis);
+        buffer.putShort(position + 16, (short) key.length);
+        buffer.put(position + HEADER_BYTES, key);
+        buffer.put(position + HEADER_BYTES + key.length, value);
+        buffer.putInt(position + 4, checksum(buffer, position, length));
+        // length last: a torn write leaves a zero length, which the scan treats as end of segment
+        buffer.putInt(position, length);
+        active.writePosition = position + length;
+
+        index.put(new String(key, StandardCharsets.UTF_8),
+                new Location(active, position + HEADER_BYTES + key.length, value.length, writtenAtMillis));
+
+        if (mayCompact && segments.size() > maxSegments) {
+            compactOldest();
+        }
+        return true;
+    }
+
+    private Segment roll(Segment previous) throws IOException {
+        if (previous != null) {
+            previous.buffer.force();
+        }
+        long id = previous == null ? 1 : previous.id + 1;
+        Path file = directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = Segment.map(file, id, segmentBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void compactOldest() throws IOException {
+        Segment oldest = segments.get(0);
+        int copied = 0;
+        int dropped = 0;
+        List<String> keys = new ArrayList<>();
+        for (var entry : index.entrySet()) {
+            if (entry.getValue().segment == oldest) {
+                keys.add(entry.getKey());
+            }
+        }
+        for (String key : keys) {
+            Location location = index.get(key);
+            if (location == null || location.segment != oldest) {
+                continue;
+            }
+            byte[] value = new byte[location.valueLength];
+            oldest.buffer.get(location.valueOffset, value);
+            if (!isExpired(location.writtenAtMillis)
+                    && append(key.getBytes(StandardCharsets.UTF_8), value, location.writtenAtMillis, false)) {
+                copied++;
+            } else {
+                index.remove(key, location);
+                dropped++;
+            }
+        }
+        segments.remove(oldest);
+        Files.deleteIfExists(oldest.file);
+        log.info("🧹 Compacted answer store segment {}: {} answers kept, {} dropped", oldest.id, copied, dropped);
+    }
+
+    private static int checksum(ByteBuffer buffer, int position, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(position + 8, length - 8));
+        return (int) crc.getValue();
+    }
+
+    private static long segmentIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private record Location(Segment segment, int valueOffset, int valueLength, long writtenAtMillis) {
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long id;
+        private final MappedByteBuffer buffer;
+        private int writePosition;
+
+        private Segment(Path file, long id, MappedByteBuffer buffer) {
+            this.file = file;
+            this.id = id;
+            this.buffer = buffer;
+        }
+
+        static Segment map(Path file, long id, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // the mapping stays valid after the channel closes (and after the file is deleted)
+                return new Segment(file, id, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
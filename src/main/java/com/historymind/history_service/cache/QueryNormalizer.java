@@ -0,0 +1,29 @@
+package com.historymind.history_service.cache;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Builds cache keys from user queries: NFC, case-folded, punctuation and
+ * whitespace collapsed. Vietnamese diacritics are kept, so "Hà Nội" and
+ * "Ha Noi" stay distinct keys.
+ */
+public final class QueryNormalizer {
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{P}\\p{S}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+", Pattern.UNICODE_CHARACTER_CLASS);
+
+    private QueryNormalizer() {
+    }
+
+    public static String normalize(String query) {
+        if (query == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        normalized = PUNCTUATION.matcher(normalized).replaceAll(" ");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").strip();
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
@@ -0,0 +1,136 @@
+package com.historymind.history_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.model.CompactChatResponse;
+import com.historymind.history_service.model.SymbolTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded in-process cache of AI answers keyed by {@link QueryNormalizer} output,
+ * warmed after restarts from the on-disk {@link AnswerStore}. Entries are held as
+ * {@link CompactChatResponse}s; each hit returns a fresh {@link ChatResponse}.
+ * Hit/miss/eviction counts are published as {@code cache.*} metrics tagged {@code cache=chat.response}.
+ * <p>
+ * The store is only consulted for keys this cache has never held: answers persisted
+ * before this process started, each read at most once. Everything else expires after
+ * {@code ttl-minutes} as usual, so the store's longer TTL only bounds how old a warm-start
+ * answer may be.
+ */
+@Component
+public class ResponseCache {
+
+    static final String CACHE_NAME = "chat.response";
+
+    private final Cache<String, CompactChatResponse> cache;
+    private final AnswerStore store;
+    private final long startedAtMillis = System.currentTimeMillis();
+    private final Set<String> warmed = ConcurrentHashMap.newKeySet();
+    private volatile SymbolTable symbols = new SymbolTable();
+
+    @Autowired
+    public ResponseCache(
+            @Value("${ai.cache.enabled:true}") boolean enabled,
+            @Value("${ai.cache.max-size:1000}") long maxSize,
+            @Value("${ai.cache.ttl-minutes:30}") long ttlMinutes,
+            AnswerStore store,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, maxSize, Duration.ofMinutes(ttlMinutes), store, meterRegistry, Ticker.systemTicker());
+    }
+
+    ResponseCache(boolean enabled, long maxSize, Duration ttl, AnswerStore store, MeterRegistry meterRegistry,
+                  Ticker ticker) {
+        this.store = store;
+        if (!enabled) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    public static ResponseCache disabled() {
+        return new ResponseCache(false, 0, 0, AnswerStore.disabled(), null);
+    }
+
+    /** The in-memory level only; never touches the disk, so it is safe on event-loop threads. */
+    public ChatResponse get(String key) {
+        if (cache == null || key == null) {
+            return null;
+        }
+        CompactChatResponse cached = cache.getIfPresent(key);
+        return cached == null ? null : cached.toChatResponse();
+    }
+
+    /**
+     * The answer persisted for {@code key} before this process started, if this cache
+     * never held the key; it is promoted to the in-memory level. The mapped read and
+     * JSON decode run on {@link Schedulers#boundedElastic()}; keys the store cannot
+     * answer complete empty on the calling thread.
+     */
+    public Mono<ChatResponse> loadStored(String key) {
+        if (cache == null || key == null || warmed.contains(key) || !store.contains(key, startedAtMillis)) {
+            return Mono.empty();
+        }
+        return Mono.fromCallable(() -> {
+            ChatResponse stored = store.get(key, startedAtMillis);
+            if (stored != null && warmed.add(key)) {
+                cache.asMap().putIfAbsent(key, CompactChatResponse.from(stored, symbols()));
+            }
+            return stored;
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** Whether {@code key} is in the in-memory level; does not count as a hit or miss. */
+    public boolean contains(String key) {
+        return cache != null && key != null && cache.asMap().containsKey(key);
+    }
+
+    public void put(String key, ChatResponse response) {
+        if (cache == null || key == null || response == null) {
+            return;
+        }
+        if (System.currentTimeMillis() <= startedAtMillis) {
+            // the store cannot tell this record from one written before the start
+            warmed.add(key);
+        }
+        cache.put(key, CompactChatResponse.from(response, symbols()));
+        store.put(key, response);
+    }
+
+    /**
+     * The table new entries are encoded against. Evicted entries leave their symbols
+     * behind, so a full table is replaced instead of growing; it is collected once the
+     * last entry encoded against it is evicted.
+     */
+    private SymbolTable symbols() {
+        SymbolTable current = symbols;
+        SymbolTable next = current.rotateIfFull();
+        if (next != current) {
+            symbols = next;
+        }
+        return next;
+    }
+
+    public long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+}
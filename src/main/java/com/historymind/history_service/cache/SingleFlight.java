@@ -0,0 +1,83 @@
+package com.historymind.history_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one shared upstream {@link Mono}.
+ * The upstream is only cancelled once every subscriber has cancelled, and its
+ * result or error is delivered to all of them.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.coalesced = Counter.builder(name + ".singleflight.coalesced")
+                .description("Requests that joined an identical in-flight upstream call")
+                .register(meterRegistry);
+        Gauge.builder(name + ".singleflight.inflight", inFlight, Map::size)
+                .description("Distinct upstream calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Supplier<Mono<V>> call) {
+        return execute(key, () -> null, state -> { }, state -> call.get());
+    }
+
+    /**
+     * Like {@link #execute(Object, Supplier)}, with a state object per flight: it is
+     * created with the flight, every caller (the first included) hands it to
+     * {@code join} before subscribing, and {@code call} builds the upstream from it.
+     * All callers for one key must use the same state type.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> Mono<V> execute(K key, Supplier<S> newState, Consumer<S> join, Function<S, Mono<V>> call) {
+        if (key == null) {
+            return Mono.defer(() -> {
+                S state = newState.get();
+                join.accept(state);
+                return call.apply(state);
+            });
+        }
+        return Mono.defer(() -> {
+            S state = newState.get();
+            Flight<V> candidate = share(key, state, call);
+            Flight<V> existing = inFlight.putIfAbsent(key, candidate);
+            if (existing != null) {
+                coalesced.increment();
+                join.accept((S) existing.state());
+                return existing.shared();
+            }
+            join.accept(state);
+            return candidate.shared();
+        });
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private <S> Flight<V> share(K key, S state, Function<S, Mono<V>> call) {
+        AtomicReference<Flight<V>> self = new AtomicReference<>();
+        Mono<V> shared = Mono.defer(() -> call.apply(state))
+                .doFinally(signal -> inFlight.remove(key, self.get()))
+                .share();
+        Flight<V> flight = new Flight<>(shared, state);
+        self.set(flight);
+        return flight;
+    }
+
+    private record Flight<V>(Mono<V> shared, Object state) {
+    }
+}
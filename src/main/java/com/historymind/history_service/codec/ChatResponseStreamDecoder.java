@@ -0,0 +1,237 @@
+package com.historymind.history_service.codec;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import com.historymind.history_service.dto.EventDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Decodes the AI service's {@code ChatResponse} JSON incrementally with Jackson's
+ * non-blocking parser. Scalar fields and each {@code events[]} element are emitted
+ * as soon as they are complete, so at most one {@link EventDTO} is buffered at a time.
+ * <p>
+ * The intent event goes out before the first other field. If {@code query} or
+ * {@code intent} only arrive after that, a second intent event with the final values
+ * is sent right before {@code done}.
+ */
+@Component
+public class ChatResponseStreamDecoder {
+
+    private final ObjectMapper objectMapper;
+
+    public ChatResponseStreamDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<ChatStreamEvent> decode(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            State state = new State();
+            return body
+                    .concatMapIterable(state::feed)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(state.finish())))
+                    .doFinally(signal -> state.close());
+        });
+    }
+
+    private final class State {
+
+        private final JsonParser parser;
+        private final ByteArrayFeeder feeder;
+
+        private int depth;
+        private boolean started;
+        private boolean complete;
+        private String field;
+        private boolean inEvents;
+        private TokenBuffer eventBuffer;
+
+        private String query;
+        private String intent;
+        private boolean intentEmitted;
+        private String emittedQuery;
+        private String emittedIntent;
+        private boolean noData;
+
+        State() {
+            try {
+                this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        }
+
+        List<ChatStreamEvent> feed(DataBuffer buffer) {
+            byte[] bytes;
+            try {
+                bytes = new byte[buffer.readableByteCount()];
+                buffer.read(bytes);
+            } finally {
+                DataBufferUtils.release(buffer);
+            }
+            try {
+                feeder.feedInput(bytes, 0, bytes.length);
+                return drain();
+            } catch (IOException e) {
+                throw new DecodingException("Malformed AI response: " + e.getMessage(), e);
+            }
+        }
+
+        List<ChatStreamEvent> finish() {
+            feeder.endOfInput();
+            List<ChatStreamEvent> out;
+            try {
+                out = drain();
+            } catch (IOException e) {
+                throw new DecodingException("Malformed AI response: " + e.getMessage(), e);
+            }
+            if (!started) {
+                return out;
+            }
+            if (!complete) {
+                throw new DecodingException("Incomplete AI response");
+            }
+            if (intentEmitted && (!Objects.equals(query, emittedQuery) || !Objects.equals(intent, emittedIntent))) {
+                // query or intent came after the answer or events
+                intentEmitted = false;
+            }
+            emitIntent(out);
+            out.add(ChatStreamEvent.done(noData));
+            return out;
+        }
+
+        void close() {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // nothing to release beyond parser buffers
+            }
+        }
+
+        private List<ChatStreamEvent> drain() throws IOException {
+            List<ChatStreamEvent> out = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token, out);
+            }
+            return out;
+        }
+
+        private void handle(JsonToken token, List<ChatStreamEvent> out) throws IOException {
+            if (complete) {
+                throw new DecodingException("Unexpected content after AI response");
+            }
+            if (!started) {
+                if (token == JsonToken.VALUE_NULL) {
+                    complete = true;
+                    return;
+                }
+                if (token != JsonToken.START_OBJECT) {
+                    throw new DecodingException("Expected JSON object from AI service but got " + token);
+                }
+                started = true;
+                depth = 1;
+                return;
+            }
+
+            if (eventBuffer != null) {
+                eventBuffer.copyCurrentEvent(parser);
+                trackDepth(token);
+                if (depth == 2) {
+                    out.add(ChatStreamEvent.event(objectMapper.readValue(eventBuffer.asParser(), EventDTO.class)));
+                    eventBuffer = null;
+                }
+                return;
+            }
+
+            switch (token) {
+                case START_OBJECT -> {
+                    depth++;
+                    if (inEvents && depth == 3) {
+                        eventBuffer = new TokenBuffer(parser);
+                        eventBuffer.copyCurrentEvent(parser);
+                    }
+                }
+                case START_ARRAY -> {
+                    depth++;
+                    if (depth == 2 && "events".equals(field)) {
+                        inEvents = true;
+                    }
+                }
+                case END_ARRAY -> {
+                    depth--;
+                    if (depth == 1) {
+                        inEvents = false;
+                    }
+                }
+                case END_OBJECT -> {
+                    depth--;
+                    if (depth == 0) {
+                        complete = true;
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        field = parser.currentName();
+                        if (!"query".equals(field) && !"intent".equals(field)) {
+                            emitIntent(out);
+                        }
+                    }
+                }
+                default -> {
+                    if (depth == 1) {
+                        handleScalar(token, out);
+                    }
+                }
+            }
+        }
+
+        private void handleScalar(JsonToken token, List<ChatStreamEvent> out) throws IOException {
+            String text = token == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+            switch (field) {
+                case "query" -> query = text;
+                case "intent" -> intent = text;
+                case "answer" -> {
+                    if (text != null) {
+                        out.add(ChatStreamEvent.answer(text));
+                    }
+                }
+                case "noData", "no_data" -> noData = token == JsonToken.VALUE_TRUE;
+                default -> {
+                    // unknown scalar fields are ignored, as with @JsonIgnoreProperties on ChatResponse
+                }
+            }
+        }
+
+        private void trackDepth(JsonToken token) {
+            if (token.isStructStart()) {
+                depth++;
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+
+        private void emitIntent(List<ChatStreamEvent> out) {
+            if (!intentEmitted) {
+                intentEmitted = true;
+                emittedQuery = query;
+                emittedIntent = intent;
+                out.add(ChatStreamEvent.intent(query, intent));
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.historymind.history_service.codec;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Renames the AI service's top-level {@code "no_data"} key to {@code "noData"} while
+ * the body streams through, so passthrough responses match the typed
+ * {@code ChatResponse} contract without a decode/encode round trip.
+ * <p>
+ * Buffers are forwarded untouched except the one holding the key, which is sliced
+ * around it. Once the key has been rewritten (or the root object closes) the
+ * remaining buffers are not scanned at all.
+ */
+public final class NoDataKeyRewriter {
+
+    private static final byte[] SOURCE_KEY = "\"no_data\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TARGET_KEY = "\"noData\"".getBytes(StandardCharsets.US_ASCII);
+
+    private NoDataKeyRewriter() {
+    }
+
+    public static Flux<DataBuffer> rewrite(Flux<DataBuffer> body) {
+        return Flux.defer(() -> {
+            Scanner scanner = new Scanner();
+            return body
+                    .<DataBuffer>handle((buffer, sink) -> {
+                        DataBuffer out = scanner.process(buffer);
+                        if (out != null) {
+                            sink.next(out);
+                        }
+                    })
+                    .concatWith(Mono.fromSupplier(scanner::flush));
+        });
+    }
+
+    private static final class Scanner {
+
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private boolean expectKey;
+        private int matched = -1;
+        private boolean done;
+
+        // start of a possible "no_data" key that ran past the end of the previous buffer
+        private byte[] pending;
+        private DataBufferFactory factory;
+
+        DataBuffer process(DataBuffer buffer) {
+            if (done) {
+                return buffer;
+            }
+            factory = buffer.factory();
+            if (pending != null) {
+                buffer = prependPending(buffer);
+            }
+
+            int start = buffer.readPosition();
+            int end = buffer.writePosition();
+            int keyStart = -1;
+            for (int i = start; i < end; i++) {
+                byte b = buffer.getByte(i);
+                if (inString) {
+                    if (matched >= 0) {
+                        matched = b == SOURCE_KEY[matched] ? matched + 1 : -1;
+                        if (matched == SOURCE_KEY.length) {
+                            done = true;
+                            return replaceKey(buffer, keyStart - start, i + 1 - start);
+                        }
+                    }
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> {
+                        inString = true;
+                        if (depth == 1 && expectKey) {
+                            matched = 1;
+                            keyStart = i;
+                        }
+                        expectKey = false;
+                    }
+                    case '{', '[' -> {
+                        depth++;
+                        expectKey = depth == 1 && b == '{';
+                    }
+                    case '}', ']' -> {
+                        depth--;
+                        if (depth <= 0) {
+                            done = true;
+                            return buffer;
+                        }
+                    }
+                    case ',' -> expectKey = depth == 1;
+                    default -> {
+                    }
+                }
+            }
+
+            if (matched > 0) {
+                // hold the partial key back and rescan it together with the next buffer
+                inString = false;
+                expectKey = true;
+                matched = -1;
+                int heldLength = end - keyStart;
+                pending = new byte[heldLength];
+                buffer.readPosition(keyStart);
+                buffer.read(pending);
+                if (keyStart == start) {
+                    DataBufferUtils.release(buffer);
+                    return null;
+                }
+                buffer.readPosition(start);
+                buffer.writePosition(keyStart);
+            }
+            return buffer;
+        }
+
+        DataBuffer flush() {
+            // the body ended mid-key: forward whatever was held back unchanged
+            if (pending == null) {
+                return null;
+            }
+            DataBuffer rest = factory.wrap(pending);
+            pending = null;
+            return rest;
+        }
+
+        private DataBuffer prependPending(DataBuffer buffer) {
+            DataBuffer joined = buffer.factory().allocateBuffer(pending.length + buffer.readableByteCount());
+            joined.write(pending);
+            joined.write(buffer);
+            DataBufferUtils.release(buffer);
+            pending = null;
+            return joined;
+        }
+
+        private DataBuffer replaceKey(DataBuffer buffer, int keyOffset, int keyEndOffset) {
+            DataBuffer head = buffer.split(buffer.readPosition() + keyOffset);
+            buffer.readPosition(buffer.readPosition() + (keyEndOffset - keyOffset));
+            DataBuffer key = buffer.factory().wrap(TARGET_KEY);
+            return buffer.factory().join(List.of(head, key, buffer));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.historymind.history_service.config;
+
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration
+public class StartupConfig {
+
+    // static: bean factory post-processors are created before regular beans
+    @Bean
+    public static LazyBeansPostProcessor lazyBeansPostProcessor() {
+        return new LazyBeansPostProcessor();
+    }
+
+    /**
+     * Marks beans from non-critical packages (springdoc by default) lazy, so they are
+     * built on first use instead of delaying the first successful {@code /ping}.
+     */
+    static class LazyBeansPostProcessor implements BeanFactoryPostProcessor, EnvironmentAware {
+
+        private List<String> packages = List.of();
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.packages = Binder.get(environment)
+                    .bind("startup.lazy-bean-packages", Bindable.listOf(String.class))
+                    .orElse(List.of("org.springdoc."));
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.getRole() == BeanDefinition.ROLE_APPLICATION && isNonCritical(definition)) {
+                    definition.setLazyInit(true);
+                }
+            }
+        }
+
+        private boolean isNonCritical(BeanDefinition definition) {
+            String source = definition.getBeanClassName();
+            if (source == null && definition instanceof AnnotatedBeanDefinition annotated
+                    && annotated.getFactoryMethodMetadata() != null) {
+                source = annotated.getFactoryMethodMetadata().getDeclaringClassName();
+            }
+            if (source == null) {
+                return false;
+            }
+            for (String prefix : packages) {
+                if (source.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
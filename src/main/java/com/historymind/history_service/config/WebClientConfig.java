@@ -3,18 +3,23 @@ package com.historymind.history_service.config;
 import io.netty.channel.ChannelOption;
 import io.netty.handler.timeout.ReadTimeoutHandler;
 import io.netty.handler.timeout.WriteTimeoutHandler;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
 import reactor.netty.http.client.HttpClient;
 import reactor.netty.resources.ConnectionProvider;
 
 import java.time.Duration;
+import java.util.Arrays;
 
 @Configuration
+@Slf4j
 public class WebClientConfig {
 
     @Bean
@@ -28,16 +33,30 @@ public class WebClientConfig {
             @Value("${ai.service.max-idle-time-seconds:30}") long maxIdleTimeSeconds,
             @Value("${ai.service.max-life-time-seconds:300}") long maxLifeTimeSeconds,
             @Value("${ai.service.max-connections:200}") int maxConnections,
-            @Value("${ai.service.max-in-memory-size-mb:4}") int maxInMemorySizeMb
+            @Value("${ai.service.max-in-memory-size-mb:4}") int maxInMemorySizeMb,
+            @Value("${ai.service.metrics-enabled:true}") boolean metricsEnabled,
+            @Value("${ai.service.protocols:HTTP11}") HttpProtocol[] protocols,
+            @Value("${ai.service.h2-max-connections:4}") int h2MaxConnections,
+            @Value("${ai.service.h2-max-concurrent-streams:100}") long h2MaxConcurrentStreams
     ) {
-        ConnectionProvider connectionProvider = ConnectionProvider.builder("ai-webclient-pool")
-                .maxConnections(maxConnections)
+        HttpProtocol[] effectiveProtocols = effectiveProtocols(aiServiceUrl, protocols);
+        ConnectionProvider connectionProvider = connectionPool(effectiveProtocols, maxConnections,
+                        h2MaxConnections, h2MaxConcurrentStreams)
                 .pendingAcquireTimeout(Duration.ofSeconds(pendingAcquireTimeoutSeconds))
                 .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
                 .maxLifeTime(Duration.ofSeconds(maxLifeTimeSeconds))
+                // reactor.netty.connection.provider.* gauges: active/idle/pending connections
+                .metrics(metricsEnabled)
                 .build();
 
         HttpClient httpClient = HttpClient.create(connectionProvider)
+                .protocol(effectiveProtocols)
+                // reactor.netty.http.client.* timers: connect, TLS handshake, data sent/received;
+                // the query string is dropped so the uri tag stays low-cardinality
+                .metrics(metricsEnabled, uri -> {
+                    int queryStart = uri.indexOf('?');
+                    return queryStart < 0 ? uri : uri.substring(0, queryStart);
+                })
                 .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
                 .responseTimeout(Duration.ofSeconds(responseTimeoutSeconds))
                 .doOnConnected(conn -> conn
@@ -55,4 +74,43 @@ public class WebClientConfig {
                 .exchangeStrategies(strategies)
                 .build();
     }
+
+    /**
+     * HTTP/1.1 gets a pool of {@code maxConnections} keep-alive connections. Once HTTP/2 is
+     * enabled the pool switches to an HTTP/2 allocation strategy of a few multiplexed
+     * connections; that strategy does not keep HTTP/1.1 connections for reuse, so a server
+     * that only negotiates http/1.1 through ALPN would pay a TLS handshake per request
+     * with at most {@code h2MaxConnections} in flight. HTTP/2 is therefore opt-in, for
+     * upstreams known to speak it.
+     */
+    static ConnectionProvider.Builder connectionPool(HttpProtocol[] effectiveProtocols, int maxConnections,
+                                                     int h2MaxConnections, long h2MaxConcurrentStreams) {
+        ConnectionProvider.Builder pool = ConnectionProvider.builder("ai-webclient-pool")
+                .maxConnections(maxConnections);
+        if (Arrays.stream(effectiveProtocols).anyMatch(p -> p != HttpProtocol.HTTP11)) {
+            // HTTP/2 multiplexes requests as streams, so a handful of connections carries the load
+            pool.allocationStrategy(Http2AllocationStrategy.builder()
+                    .maxConnections(h2MaxConnections)
+                    .maxConcurrentStreams(h2MaxConcurrentStreams)
+                    .build());
+        }
+        return pool;
+    }
+
+    /**
+     * Keeps only the protocols usable with the URL scheme: h2 needs TLS (ALPN picks h2 or
+     * falls back to HTTP/1.1), h2c is cleartext only. Falls back to HTTP/1.1 if nothing is left.
+     */
+    static HttpProtocol[] effectiveProtocols(String url, HttpProtocol[] configured) {
+        boolean secure = url.regionMatches(true, 0, "https:", 0, 6);
+        HttpProtocol[] usable = Arrays.stream(configured)
+                .filter(p -> p == HttpProtocol.HTTP11 || (p == HttpProtocol.H2) == secure)
+                .distinct()
+                .toArray(HttpProtocol[]::new);
+        if (usable.length < configured.length) {
+            log.warn("⚠️ Ignoring AI service protocols not usable with {}: configured {}, using {}",
+                    url, Arrays.toString(configured), usable.length == 0 ? "[HTTP11]" : Arrays.toString(usable));
+        }
+        return usable.length == 0 ? new HttpProtocol[]{HttpProtocol.HTTP11} : usable;
+    }
 }
@@ -1,21 +1,33 @@
 package com.historymind.history_service.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.reactive.config.CorsRegistry;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class WebFluxConfig implements WebFluxConfigurer {
 
+    /**
+     * The API's CORS policy. Also applied by filters that answer before routing (e.g.
+     * rate-limit rejections), so browsers can read those responses too.
+     */
+    public static CorsConfiguration corsConfiguration() {
+        CorsConfiguration config = new CorsConfiguration();
+        config.setAllowedOrigins(List.of(
+                "https://fe-history-mind-ai.vercel.app",
+                "http://localhost:3000",
+                "http://127.0.0.1:3000"));
+        config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        config.addAllowedHeader("*");
+        config.setAllowCredentials(true);
+        return config;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
-        registry.addMapping("/**")
-                .allowedOrigins(
-                        "https://fe-history-mind-ai.vercel.app",
-                        "http://localhost:3000",
-                        "http://127.0.0.1:3000")
-                .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
-                .allowedHeaders("*")
-                .allowCredentials(true);
+        registry.addMapping("/**").combine(corsConfiguration());
     }
 }
@@ -0,0 +1,52 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.BatchChatResult;
+import com.historymind.history_service.dto.ChatRequest;
+import com.historymind.history_service.exception.RateLimitedException;
+import com.historymind.history_service.resilience.ClientRateLimitFilter;
+import com.historymind.history_service.resilience.ClientRateLimiter;
+import com.historymind.history_service.service.BatchChatService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/chat")
+public class BatchChatController {
+
+    private final BatchChatService batchChatService;
+    private final ClientRateLimiter rateLimiter;
+
+    public BatchChatController(BatchChatService batchChatService, ClientRateLimiter rateLimiter) {
+        this.batchChatService = batchChatService;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @PostMapping(value = "/ask-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<BatchChatResult>> askBatch(@RequestBody List<ChatRequest> requests, ServerWebExchange exchange) {
+        return charged(requests, exchange)
+                .collectSortedList(Comparator.comparingInt(BatchChatResult::getIndex));
+    }
+
+    @PostMapping(value = "/ask-batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchChatResult> streamBatch(@RequestBody List<ChatRequest> requests, ServerWebExchange exchange) {
+        return charged(requests, exchange);
+    }
+
+    /** A batch costs one rate-limit token per question; the filter already took the first. */
+    private Flux<BatchChatResult> charged(List<ChatRequest> requests, ServerWebExchange exchange) {
+        String clientKey = exchange.getAttribute(ClientRateLimitFilter.CLIENT_KEY_ATTRIBUTE);
+        if (clientKey != null && requests != null && requests.size() > 1) {
+            ClientRateLimiter.Decision decision = rateLimiter.tryAcquire(clientKey, requests.size() - 1);
+            if (!decision.allowed()) {
+                return Flux.error(new RateLimitedException(decision.retryAfterSeconds()));
+            }
+        }
+        return batchChatService.processBatch(requests);
+    }
+}
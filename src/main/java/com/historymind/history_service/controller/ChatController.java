@@ -1,26 +1,192 @@
 package com.historymind.history_service.controller;
 
+import com.historymind.history_service.analytics.QueryAnalytics;
+import com.historymind.history_service.dto.ChatExchange;
 import com.historymind.history_service.dto.ChatRequest;
 import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import com.historymind.history_service.history.ExchangeLog;
+import com.historymind.history_service.history.SessionHistoryStore;
+import com.historymind.history_service.metrics.ChatMetrics;
+import com.historymind.history_service.prefetch.FollowUpPrefetcher;
 import com.historymind.history_service.service.ChatService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 @RestController
 @RequestMapping("/api/v1/chat")
+@Slf4j
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatMetrics chatMetrics;
+    private final SessionHistoryStore historyStore;
+    private final ExchangeLog exchangeLog;
+    private final QueryAnalytics queryAnalytics;
+    private final FollowUpPrefetcher followUpPrefetcher;
+    private final boolean passthroughEnabled;
 
-    public ChatController(ChatService chatService) {
+    public ChatController(ChatService chatService, ChatMetrics chatMetrics, SessionHistoryStore historyStore,
+                          ExchangeLog exchangeLog, QueryAnalytics queryAnalytics,
+                          FollowUpPrefetcher followUpPrefetcher,
+                          @Value("${ai.passthrough.enabled:false}") boolean passthroughEnabled) {
         this.chatService = chatService;
+        this.chatMetrics = chatMetrics;
+        this.historyStore = historyStore;
+        this.exchangeLog = exchangeLog;
+        this.queryAnalytics = queryAnalytics;
+        this.followUpPrefetcher = followUpPrefetcher;
+        this.passthroughEnabled = passthroughEnabled;
     }
 
     @PostMapping("/ask")
-    public Mono<ResponseEntity<ChatResponse>> askHistory(@RequestBody ChatRequest request) {
-        return chatService.processChat(request.getQuery())
-                .map(ResponseEntity::ok)
-                .defaultIfEmpty(ResponseEntity.notFound().build());
+    public Mono<ResponseEntity<?>> askHistory(
+            @RequestBody ChatRequest request,
+            @RequestHeader(value = SessionHistoryStore.SESSION_HEADER, required = false) String sessionId) {
+        queryAnalytics.recordQuery(request.getQuery());
+        if (passthroughEnabled) {
+            // cache hits are already decoded; misses are relayed without a decode/encode round trip,
+            // so only hits are remembered
+            return chatService.cachedChat(request.getQuery())
+                    .doOnNext(response -> answered(sessionId, request.getQuery(), response))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .switchIfEmpty(Mono.fromSupplier(() -> ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(timedPassthrough(request.getQuery()))));
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return chatService.processChat(request.getQuery())
+                    .doOnSuccess(response -> chatMetrics.recordRequest("ask", System.nanoTime() - start,
+                            ChatMetrics.outcomeOf(response), response == null ? null : response.getIntent()))
+                    .doOnNext(response -> answered(sessionId, request.getQuery(), response))
+                    .doOnError(e -> chatMetrics.recordRequest("ask", System.nanoTime() - start,
+                            ChatMetrics.errorOutcome(e), null))
+                    .doOnCancel(() -> chatMetrics.recordRequest("ask", System.nanoTime() - start,
+                            ChatMetrics.OUTCOME_CANCELLED, null))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .defaultIfEmpty(ResponseEntity.notFound().build());
+        });
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ChatStreamEvent> streamHistory(
+            @RequestBody ChatRequest request,
+            @RequestHeader(value = SessionHistoryStore.SESSION_HEADER, required = false) String sessionId) {
+        queryAnalytics.recordQuery(request.getQuery());
+        return recorded(sessionId, request.getQuery(), timedStream("stream", request.getQuery()));
+    }
+
+    @PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamEvent>> streamHistorySse(
+            @RequestBody ChatRequest request,
+            @RequestHeader(value = SessionHistoryStore.SESSION_HEADER, required = false) String sessionId) {
+        queryAnalytics.recordQuery(request.getQuery());
+        return recorded(sessionId, request.getQuery(), timedStream("stream_sse", request.getQuery()))
+                .map(event -> ServerSentEvent.builder(event)
+                        .event(event.getType())
+                        .build());
+    }
+
+    /** Reassembles a streamed answer and remembers it once the {@code done} event arrives. */
+    private Flux<ChatStreamEvent> recorded(String sessionId, String query, Flux<ChatStreamEvent> stream) {
+        boolean keepsHistory = historyStore.isEnabled() && SessionHistoryStore.isValidSessionId(sessionId);
+        if (!keepsHistory && !exchangeLog.isEnabled() && !queryAnalytics.isEnabled()) {
+            return stream;
+        }
+        return Flux.defer(() -> {
+            ChatExchange exchange = new ChatExchange(System.currentTimeMillis(), query, null, null, false,
+                    new ArrayList<>());
+            StringBuilder answer = new StringBuilder();
+            return stream.doOnNext(event -> {
+                switch (event.getType()) {
+                    case ChatStreamEvent.INTENT -> exchange.setIntent(event.getIntent());
+                    case ChatStreamEvent.ANSWER -> {
+                        if (event.getText() != null) {
+                            answer.append(event.getText());
+                        }
+                    }
+                    case ChatStreamEvent.EVENT -> {
+                        if (event.getEvent() != null && event.getEvent().getId() != null) {
+                            exchange.getEventIds().add(event.getEvent().getId());
+                        }
+                        queryAnalytics.recordEvent(event.getEvent());
+                    }
+                    case ChatStreamEvent.DONE -> {
+                        exchange.setAnswer(answer.toString());
+                        exchange.setNoData(Boolean.TRUE.equals(event.getNoData()));
+                        remember(sessionId, exchange);
+                    }
+                    default -> {
+                    }
+                }
+            });
+        });
+    }
+
+    private void answered(String sessionId, String query, ChatResponse response) {
+        queryAnalytics.recordEvents(response.getEvents());
+        remember(sessionId, ChatExchange.of(query, response));
+    }
+
+    private void remember(String sessionId, ChatExchange exchange) {
+        if (followUpPrefetcher.isEnabled()) {
+            // the session's previous question, read before this exchange replaces it as the newest
+            historyStore.page(sessionId, 0, 1).getItems().stream()
+                    .findFirst()
+                    .ifPresent(previous -> followUpPrefetcher.onFollowUp(previous.getQuery(), exchange.getQuery()));
+        }
+        historyStore.record(sessionId, exchange);
+        exchangeLog.append(sessionId, exchange);
+    }
+
+    private Flux<DataBuffer> timedPassthrough(String query) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicReference<String> outcome = new AtomicReference<>(ChatMetrics.OUTCOME_SUCCESS);
+            return chatService.passthroughChat(query)
+                    .doOnError(e -> outcome.set(ChatMetrics.errorOutcome(e)))
+                    .doFinally(signal -> chatMetrics.recordRequest("ask_passthrough", System.nanoTime() - start,
+                            signal == SignalType.CANCEL ? ChatMetrics.OUTCOME_CANCELLED : outcome.get(), null));
+        });
+    }
+
+    private Flux<ChatStreamEvent> timedStream(String endpoint, String query) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicReference<ChatStreamEvent> intent = new AtomicReference<>();
+            AtomicReference<String> outcome = new AtomicReference<>(ChatMetrics.OUTCOME_EMPTY);
+            return chatService.streamChat(query)
+                    .doOnNext(event -> {
+                        if (ChatStreamEvent.INTENT.equals(event.getType())) {
+                            intent.compareAndSet(null, event);
+                        } else if (ChatStreamEvent.DONE.equals(event.getType())) {
+                            outcome.set(Boolean.TRUE.equals(event.getNoData())
+                                    ? ChatMetrics.OUTCOME_NO_DATA : ChatMetrics.OUTCOME_SUCCESS);
+                        }
+                    })
+                    .doOnError(e -> outcome.set(ChatMetrics.errorOutcome(e)))
+                    .doFinally(signal -> chatMetrics.recordRequest(endpoint, System.nanoTime() - start,
+                            signal == SignalType.CANCEL ? ChatMetrics.OUTCOME_CANCELLED : outcome.get(),
+                            intent.get() == null ? null : intent.get().getIntent()))
+                    .onErrorResume(e -> !(e instanceof ServiceOverloadedException
+                            || e instanceof DeadlineExceededException), e -> {
+                        log.error("❌ Chat stream failed", e);
+                        return Flux.just(ChatStreamEvent.error("AI service unavailable"));
+                    });
+        });
     }
 }
@@ -0,0 +1,104 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.dto.EventSearchHit;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.model.HistoryRecord;
+import com.historymind.history_service.search.EventSearchIndex;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/events")
+public class EventController {
+
+    private static final int MAX_LIMIT = 500;
+    private static final int MAX_TIMELINE_PAGE = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_QUERY_CHARS = 500;
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final EventIndex eventIndex;
+    private final EventSearchIndex searchIndex;
+
+    public EventController(EventIndex eventIndex, EventSearchIndex searchIndex) {
+        this.eventIndex = eventIndex;
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Full-text search over the title, event and story of locally indexed events, best
+     * match first. Accent-free words match any accents unless {@code fold} says otherwise.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<EventSearchHit>>> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "AUTO") EventSearchIndex.Folding fold,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        if (q == null || q.isBlank() || q.length() > MAX_QUERY_CHARS) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        return searchIndex.search(q, fold, cappedLimit)
+                .map(hits -> ResponseEntity.ok(hits.stream()
+                        .map(hit -> new EventSearchHit(hit.score(), hit.record().toEventDTO()))
+                        .toList()));
+    }
+
+    /**
+     * Chronological events in a year range, answered from the local index only. The
+     * body is streamed (a JSON array, or NDJSON when asked for); the cursor for the next
+     * page, if any, is in the {@value #NEXT_CURSOR_HEADER} header.
+     */
+    @GetMapping(value = "/timeline", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<Flux<EventDTO>>> timeline(
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer to,
+            @RequestParam(required = false) String person,
+            @RequestParam(required = false) String place,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "200") int limit
+    ) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_TIMELINE_PAGE));
+        // a page of up to 1000 records is built off the event loop
+        return Mono.fromCallable(() -> eventIndex.timeline(from, to, person, place, cursor, cappedLimit))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (page.nextCursor() != null) {
+                        response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(Flux.fromIterable(page.records()).map(HistoryRecord::toEventDTO));
+                })
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().<Flux<EventDTO>>build()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<EventDTO>> getEvent(@PathVariable String id) {
+        return Mono.justOrEmpty(eventIndex.findById(id))
+                .map(record -> ResponseEntity.ok(record.toEventDTO()))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public Flux<EventDTO> findEvents(
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String person,
+            @RequestParam(required = false) String place,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return Flux.fromIterable(eventIndex.find(year, person, place, keyword, cappedLimit))
+                .map(HistoryRecord::toEventDTO);
+    }
+}
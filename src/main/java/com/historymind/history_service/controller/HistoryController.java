@@ -0,0 +1,68 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.ChatHistoryPage;
+import com.historymind.history_service.history.SessionHistoryStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads and clears the history of one chat session.
+ * <p>
+ * A session id is the only thing that ties a history to its client, so it is treated as
+ * a bearer secret: both endpoints answer only when the {@value SessionHistoryStore#SESSION_HEADER}
+ * header carries the same id as the path, and clients are expected to generate ids that
+ * cannot be guessed (e.g. a random UUID). A path alone, which may end up in logs or
+ * browser history, is not enough to read or delete someone else's session.
+ */
+@RestController
+@RequestMapping("/api/v1/history")
+public class HistoryController {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final SessionHistoryStore historyStore;
+
+    public HistoryController(SessionHistoryStore historyStore) {
+        this.historyStore = historyStore;
+    }
+
+    @GetMapping("/{sessionId}")
+    public Mono<ResponseEntity<ChatHistoryPage>> getHistory(
+            @PathVariable String sessionId,
+            @RequestHeader(value = SessionHistoryStore.SESSION_HEADER, required = false) String callerSessionId,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit
+    ) {
+        HttpStatus rejected = checkAccess(sessionId, callerSessionId);
+        if (rejected != null) {
+            return Mono.just(ResponseEntity.status(rejected).build());
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return Mono.fromSupplier(() -> ResponseEntity.ok(
+                historyStore.page(sessionId, Math.max(0, offset), cappedLimit)));
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public Mono<ResponseEntity<Void>> clearHistory(
+            @PathVariable String sessionId,
+            @RequestHeader(value = SessionHistoryStore.SESSION_HEADER, required = false) String callerSessionId
+    ) {
+        HttpStatus rejected = checkAccess(sessionId, callerSessionId);
+        if (rejected != null) {
+            return Mono.just(ResponseEntity.status(rejected).<Void>build());
+        }
+        return Mono.fromSupplier(() -> historyStore.clear(sessionId)
+                ? ResponseEntity.noContent().<Void>build()
+                : ResponseEntity.notFound().<Void>build());
+    }
+
+    /** Null when the caller may access the session, otherwise the status to reject with. */
+    private static HttpStatus checkAccess(String sessionId, String callerSessionId) {
+        if (!SessionHistoryStore.isValidSessionId(sessionId)) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return sessionId.equals(callerSessionId) ? null : HttpStatus.FORBIDDEN;
+    }
+}
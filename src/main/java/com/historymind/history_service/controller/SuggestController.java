@@ -0,0 +1,35 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.Suggestion;
+import com.historymind.history_service.search.SuggestIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/suggest")
+public class SuggestController {
+
+    private static final int MAX_LIMIT = 20;
+    private static final int MAX_PREFIX_CHARS = 100;
+
+    private final SuggestIndex suggestIndex;
+
+    public SuggestController(SuggestIndex suggestIndex) {
+        this.suggestIndex = suggestIndex;
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<Suggestion>>> suggest(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (prefix == null || prefix.isBlank() || prefix.length() > MAX_PREFIX_CHARS) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return Mono.fromSupplier(() -> ResponseEntity.ok(suggestIndex.suggest(prefix, cappedLimit)));
+    }
+}
@@ -0,0 +1,25 @@
+package com.historymind.history_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchChatResult {
+    private int index;
+    private String query;
+    private ChatResponse response;
+    private String error;
+
+    public static BatchChatResult success(int index, String query, ChatResponse response) {
+        return new BatchChatResult(index, query, response, null);
+    }
+
+    public static BatchChatResult failure(int index, String query, String error) {
+        return new BatchChatResult(index, query, null, error);
+    }
+}
@@ -0,0 +1,34 @@
+package com.historymind.history_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One question/answer turn of a session, as returned by the history endpoints.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatExchange {
+
+    private long askedAt;
+    private String query;
+    private String intent;
+    private String answer;
+    private boolean noData;
+    private List<String> eventIds;
+
+    public static ChatExchange of(String query, ChatResponse response) {
+        List<String> eventIds = response.getEvents() == null ? List.of() : response.getEvents().stream()
+                .filter(Objects::nonNull)
+                .map(EventDTO::getId)
+                .filter(Objects::nonNull)
+                .toList();
+        return new ChatExchange(System.currentTimeMillis(), query, response.getIntent(),
+                response.getAnswer(), response.isNoData(), eventIds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.historymind.history_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page of a session's history, newest exchange first. {@code total} is the number
+ * of exchanges currently retained for the session.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryPage {
+
+    private String sessionId;
+    private int total;
+    private int offset;
+    private int limit;
+    private List<ChatExchange> items;
+}
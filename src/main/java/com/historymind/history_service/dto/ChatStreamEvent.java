@@ -0,0 +1,62 @@
+package com.historymind.history_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ChatStreamEvent {
+
+    public static final String INTENT = "intent";
+    public static final String ANSWER = "answer";
+    public static final String EVENT = "event";
+    public static final String DONE = "done";
+    public static final String ERROR = "error";
+
+    private String type;
+    private String query;
+    private String intent;
+    private String text;
+    private EventDTO event;
+    private Boolean noData;
+
+    public static ChatStreamEvent intent(String query, String intent) {
+        ChatStreamEvent e = new ChatStreamEvent();
+        e.setType(INTENT);
+        e.setQuery(query);
+        e.setIntent(intent);
+        return e;
+    }
+
+    public static ChatStreamEvent answer(String text) {
+        ChatStreamEvent e = new ChatStreamEvent();
+        e.setType(ANSWER);
+        e.setText(text);
+        return e;
+    }
+
+    public static ChatStreamEvent event(EventDTO event) {
+        ChatStreamEvent e = new ChatStreamEvent();
+        e.setType(EVENT);
+        e.setEvent(event);
+        return e;
+    }
+
+    public static ChatStreamEvent done(boolean noData) {
+        ChatStreamEvent e = new ChatStreamEvent();
+        e.setType(DONE);
+        e.setNoData(noData);
+        return e;
+    }
+
+    public static ChatStreamEvent error(String message) {
+        ChatStreamEvent e = new ChatStreamEvent();
+        e.setType(ERROR);
+        e.setText(message);
+        return e;
+    }
+}
@@ -0,0 +1,18 @@
+package com.historymind.history_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One full-text search result. {@code score} is the BM25 relevance; it only orders
+ * the results of a single query and is not comparable across queries.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSearchHit {
+
+    private double score;
+    private EventDTO event;
+}
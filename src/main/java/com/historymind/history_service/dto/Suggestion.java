@@ -0,0 +1,19 @@
+package com.historymind.history_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A typeahead suggestion: a person, place or keyword as written in the events, with
+ * the number of indexed events that mention it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+
+    private String text;
+    private String type;
+    private int count;
+}
@@ -0,0 +1,8 @@
+package com.historymind.history_service.exception;
+
+public class CircuitOpenException extends ServiceOverloadedException {
+
+    public CircuitOpenException(long retryAfterSeconds) {
+        super("AI service circuit is open", retryAfterSeconds);
+    }
+}
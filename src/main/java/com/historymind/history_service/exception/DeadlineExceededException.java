@@ -0,0 +1,12 @@
+package com.historymind.history_service.exception;
+
+/**
+ * Raised when the caller's deadline passes before the AI service answers. Mapped to
+ * 504 by {@link GlobalExceptionHandler}; not counted against the AI service's health.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
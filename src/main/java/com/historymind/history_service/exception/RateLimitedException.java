@@ -0,0 +1,19 @@
+package com.historymind.history_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Raised when a client has used up its rate limit part way through handling a request,
+ * e.g. a batch that costs more than the one token the rate-limit filter takes. Mapped to
+ * 429 with a {@code Retry-After} header by {@link GlobalExceptionHandler}.
+ */
+@Getter
+public class RateLimitedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(long retryAfterSeconds) {
+        super("Too many requests");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
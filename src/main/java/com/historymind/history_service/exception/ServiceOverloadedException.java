@@ -0,0 +1,18 @@
+package com.historymind.history_service.exception;
+
+import lombok.Getter;
+
+/**
+ * Raised when a request is shed before reaching the AI service. Mapped to
+ * 503 with a {@code Retry-After} header by {@link GlobalExceptionHandler}.
+ */
+@Getter
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,268 @@
+package com.historymind.history_service.history;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatExchange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Write-behind log of completed chat exchanges for analytics. {@link #append} only
+ * enqueues, so the request path never touches the disk; a single background thread
+ * drains the queue in batches of up to {@code batch-size}, when that many are waiting
+ * or every {@code flush-interval-ms}, whichever comes first. Each batch is one write
+ * (and one fsync) to a daily NDJSON file, {@code exchanges-yyyy-MM-dd.ndjson}.
+ * <p>
+ * The queue is bounded by {@code queue-capacity}. When it is full the
+ * {@code overflow} policy decides what is lost: {@link Overflow#DROP_OLDEST} evicts the
+ * oldest queued exchange, {@link Overflow#DROP_NEWEST} rejects the incoming one.
+ */
+@Component
+@Slf4j
+public class ExchangeLog {
+
+    public enum Overflow { DROP_OLDEST, DROP_NEWEST }
+
+    private static final String FILE_PREFIX = "exchanges-";
+    private static final String FILE_SUFFIX = ".ndjson";
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Overflow overflow;
+    private final ObjectMapper objectMapper;
+
+    private final ConcurrentLinkedQueue<Line> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+
+    private FileChannel channel;
+    private LocalDate channelDate;
+
+    private Counter written;
+    private Counter dropped;
+    private Counter failed;
+    private Timer flushTimer;
+    private DistributionSummary batchSizes;
+
+    @Autowired
+    public ExchangeLog(
+            @Value("${ai.exchange-log.enabled:false}") boolean enabled,
+            @Value("${ai.exchange-log.dir:./data/exchanges}") String directory,
+            @Value("${ai.exchange-log.queue-capacity:10000}") int queueCapacity,
+            @Value("${ai.exchange-log.batch-size:256}") int batchSize,
+            @Value("${ai.exchange-log.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${ai.exchange-log.overflow:DROP_OLDEST}") Overflow overflow,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, Path.of(directory), queueCapacity, batchSize, Duration.ofMillis(flushIntervalMs),
+                overflow, objectMapper, meterRegistry);
+    }
+
+    ExchangeLog(boolean enabled, Path directory, int queueCapacity, int batchSize, Duration flushInterval,
+                Overflow overflow, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflow = overflow;
+        this.objectMapper = objectMapper;
+        if (!enabled) {
+            this.flusher = null;
+            return;
+        }
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "exchange-log");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.written = exchangeCounter(meterRegistry, "written");
+        this.dropped = exchangeCounter(meterRegistry, "dropped");
+        this.failed = exchangeCounter(meterRegistry, "failed");
+        this.flushTimer = Timer.builder("chat.exchanges.flush")
+                .description("Time to write and sync one batch of exchanges")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("chat.exchanges.batch.size")
+                .description("Exchanges written per flush")
+                .register(meterRegistry);
+        Gauge.builder("chat.exchanges.queue.depth", queued, AtomicInteger::get)
+                .description("Exchanges waiting to be flushed")
+                .register(meterRegistry);
+
+        long intervalMs = Math.max(1, flushInterval.toMillis());
+        flusher.scheduleWithFixedDelay(this::flushAll, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static ExchangeLog disabled() {
+        return new ExchangeLog(false, Path.of("."), 1, 1, Duration.ZERO, Overflow.DROP_NEWEST, null, null);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void append(String sessionId, ChatExchange exchange) {
+        if (!enabled || exchange == null) {
+            return;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            if (overflow == Overflow.DROP_NEWEST) {
+                queued.decrementAndGet();
+                dropped.increment();
+                return;
+            }
+            if (queue.poll() != null) {
+                // the evicted exchange's slot goes to this one
+                queued.decrementAndGet();
+                dropped.increment();
+            }
+        }
+        queue.offer(new Line(sessionId, exchange));
+        if (queued.get() >= batchSize && flushPending.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushPending.set(false);
+                flushAll();
+            });
+        }
+    }
+
+    int queueDepth() {
+        return queued.get();
+    }
+
+    /** Blocks until everything queued before the call has been written. */
+    void awaitFlush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flusher.submit(this::flushAll).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Exchange log flusher is stuck", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        awaitFlush();
+        // closed on the flusher thread so it cannot race a scheduled flush
+        flusher.execute(() -> {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } catch (IOException e) {
+                log.warn("⚠️ Failed to close exchange log", e);
+            }
+        });
+        flusher.shutdown();
+    }
+
+    private void flushAll() {
+        while (queued.get() > 0) {
+            if (!flushBatch()) {
+                return;
+            }
+        }
+    }
+
+    private boolean flushBatch() {
+        ByteArrayOutputStream batch = new ByteArrayOutputStream(batchSize * 512);
+        int count = 0;
+        Line line;
+        while (count < batchSize && (line = queue.poll()) != null) {
+            queued.decrementAndGet();
+            try {
+                objectMapper.writeValue(batch, line);
+                batch.write('\n');
+                count++;
+            } catch (IOException e) {
+                failed.increment();
+                log.warn("⚠️ Failed to encode exchange for the log", e);
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            FileChannel out = channelFor(LocalDate.now(ZoneOffset.UTC));
+            ByteBuffer bytes = ByteBuffer.wrap(batch.toByteArray());
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(false);
+            written.increment(count);
+            batchSizes.record(count);
+            return true;
+        } catch (IOException e) {
+            failed.increment(count);
+            log.warn("⚠️ Failed to write {} exchanges to {}", count, directory, e);
+            return false;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private FileChannel channelFor(LocalDate date) throws IOException {
+        if (channel != null && date.equals(channelDate)) {
+            return channel;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+        Files.createDirectories(directory);
+        channel = FileChannel.open(directory.resolve(FILE_PREFIX + date + FILE_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        channelDate = date;
+        return channel;
+    }
+
+    private static Counter exchangeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.exchanges.logged")
+                .description("Chat exchanges offered to the write-behind log")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    record Line(String sessionId, @JsonUnwrapped ChatExchange exchange) {
+    }
+}
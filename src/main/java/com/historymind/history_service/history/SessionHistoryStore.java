@@ -0,0 +1,333 @@
+package com.historymind.history_service.history;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.historymind.history_service.dto.ChatExchange;
+import com.historymind.history_service.dto.ChatHistoryPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Recent exchanges per chat session, identified by the {@value #SESSION_HEADER} header.
+ * <p>
+ * Each session owns a ring of length-prefixed records in a direct {@link ByteBuffer},
+ * so retained history costs off-heap bytes rather than heap objects. A ring starts
+ * small and doubles up to {@code max-bytes-per-session}; after that, and once it holds
+ * {@code max-entries} records, the oldest records are overwritten. Sessions idle for
+ * longer than {@code idle-timeout-minutes} are dropped, together with their buffer.
+ */
+@Component
+public class SessionHistoryStore {
+
+    public static final String SESSION_HEADER = "X-Session-Id";
+
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+    private static final int INITIAL_BYTES = 4 * 1024;
+    private static final int MAX_QUERY_CHARS = 1000;
+    private static final int MAX_EVENT_IDS = 50;
+
+    private final Cache<String, SessionBuffer> sessions;
+    private final int maxEntries;
+    private final int maxBytesPerSession;
+    private final int maxAnswerChars;
+    private final Counter recorded;
+    private final Counter dropped;
+
+    @Autowired
+    public SessionHistoryStore(
+            @Value("${ai.history.enabled:true}") boolean enabled,
+            @Value("${ai.history.max-sessions:2000}") long maxSessions,
+            @Value("${ai.history.max-entries:50}") int maxEntries,
+            @Value("${ai.history.max-bytes-per-session:32768}") int maxBytesPerSession,
+            @Value("${ai.history.max-answer-chars:4000}") int maxAnswerChars,
+            @Value("${ai.history.idle-timeout-minutes:30}") long idleTimeoutMinutes,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, maxSessions, maxEntries, maxBytesPerSession, maxAnswerChars,
+                Duration.ofMinutes(idleTimeoutMinutes), meterRegistry, Ticker.systemTicker());
+    }
+
+    SessionHistoryStore(boolean enabled, long maxSessions, int maxEntries, int maxBytesPerSession,
+                        int maxAnswerChars, Duration idleTimeout, MeterRegistry meterRegistry, Ticker ticker) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytesPerSession = Math.max(256, maxBytesPerSession);
+        this.maxAnswerChars = Math.max(1, maxAnswerChars);
+        this.sessions = enabled
+                ? Caffeine.newBuilder()
+                    .maximumSize(maxSessions)
+                    .expireAfterAccess(idleTimeout)
+                    .ticker(ticker)
+                    .executor(Runnable::run)
+                    .build()
+                : null;
+
+        this.recorded = exchangeCounter(meterRegistry, "recorded");
+        this.dropped = exchangeCounter(meterRegistry, "dropped");
+        Gauge.builder("chat.history.sessions", this, SessionHistoryStore::sessionCount)
+                .description("Chat sessions with retained history")
+                .register(meterRegistry);
+        Gauge.builder("chat.history.bytes", this, SessionHistoryStore::retainedBytes)
+                .description("Off-heap bytes reserved for session history")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public static SessionHistoryStore disabled() {
+        return new SessionHistoryStore(false, 0, 1, 256, 1, Duration.ZERO,
+                new SimpleMeterRegistry(), Ticker.systemTicker());
+    }
+
+    public static boolean isValidSessionId(String sessionId) {
+        return sessionId != null && SESSION_ID.matcher(sessionId).matches();
+    }
+
+    public boolean isEnabled() {
+        return sessions != null;
+    }
+
+    public void record(String sessionId, ChatExchange exchange) {
+        if (sessions == null || exchange == null || !isValidSessionId(sessionId)) {
+            return;
+        }
+        byte[] encoded = encode(exchange);
+        SessionBuffer buffer = sessions.get(sessionId, id -> new SessionBuffer(maxEntries, maxBytesPerSession));
+        if (buffer.append(encoded)) {
+            recorded.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /** Exchanges newest first, skipping {@code offset}; an unknown session yields an empty page. */
+    public ChatHistoryPage page(String sessionId, int offset, int limit) {
+        SessionBuffer buffer = sessions == null || !isValidSessionId(sessionId)
+                ? null : sessions.getIfPresent(sessionId);
+        if (buffer == null) {
+            return new ChatHistoryPage(sessionId, 0, offset, limit, List.of());
+        }
+        List<byte[]> records = new ArrayList<>();
+        int total = buffer.readNewest(offset, limit, records);
+        List<ChatExchange> items = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            items.add(decode(record));
+        }
+        return new ChatHistoryPage(sessionId, total, offset, limit, items);
+    }
+
+    public boolean clear(String sessionId) {
+        if (sessions == null || !isValidSessionId(sessionId)) {
+            return false;
+        }
+        return sessions.asMap().remove(sessionId) != null;
+    }
+
+    long sessionCount() {
+        if (sessions == null) {
+            return 0;
+        }
+        sessions.cleanUp();
+        return sessions.estimatedSize();
+    }
+
+    long retainedBytes() {
+        if (sessions == null) {
+            return 0;
+        }
+        long total = 0;
+        for (SessionBuffer buffer : sessions.asMap().values()) {
+            total += buffer.capacity();
+        }
+        return total;
+    }
+
+    private byte[] encode(ChatExchange exchange) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(exchange.getAskedAt());
+            out.writeBoolean(exchange.isNoData());
+            writeNullable(out, truncate(exchange.getQuery(), MAX_QUERY_CHARS));
+            writeNullable(out, truncate(exchange.getIntent(), MAX_QUERY_CHARS));
+            writeNullable(out, truncate(exchange.getAnswer(), maxAnswerChars));
+            List<String> eventIds = exchange.getEventIds() == null ? List.of() : exchange.getEventIds();
+            int count = Math.min(eventIds.size(), MAX_EVENT_IDS);
+            out.writeByte(count);
+            for (int i = 0; i < count; i++) {
+                out.writeUTF(truncate(eventIds.get(i), 128));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ChatExchange decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            long askedAt = in.readLong();
+            boolean noData = in.readBoolean();
+            String query = readNullable(in);
+            String intent = readNullable(in);
+            String answer = readNullable(in);
+            int count = in.readUnsignedByte();
+            List<String> eventIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                eventIds.add(in.readUTF());
+            }
+            return new ChatExchange(askedAt, query, intent, answer, noData, eventIds);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static String truncate(String value, int maxChars) {
+        // writeUTF takes at most 64 KiB, i.e. ~21k chars of 3-byte UTF-8
+        int limit = Math.min(maxChars, 20_000);
+        if (value == null || value.length() <= limit) {
+            return value;
+        }
+        int end = Character.isHighSurrogate(value.charAt(limit - 1)) ? limit - 1 : limit;
+        return value.substring(0, end);
+    }
+
+    private static Counter exchangeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.history.exchanges")
+                .description("Chat exchanges offered to session history")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Byte ring of {@code int length | payload} records. Record start offsets are kept
+     * in a small int ring so pages can be read newest first without a scan.
+     */
+    static final class SessionBuffer {
+
+        private static final int LENGTH_BYTES = Integer.BYTES;
+
+        private final int maxBytes;
+        private final int[] starts;
+        private ByteBuffer ring;
+        private volatile int capacity;
+        private int first;
+        private int count;
+        private int head;
+        private int used;
+
+        SessionBuffer(int maxEntries, int maxBytes) {
+            this.maxBytes = maxBytes;
+            this.starts = new int[maxEntries];
+            this.ring = ByteBuffer.allocateDirect(Math.min(INITIAL_BYTES, maxBytes));
+            this.capacity = ring.capacity();
+        }
+
+        int capacity() {
+            return capacity;
+        }
+
+        synchronized boolean append(byte[] payload) {
+            int needed = LENGTH_BYTES + payload.length;
+            if (needed > maxBytes) {
+                return false;
+            }
+            while (count == starts.length || ring.capacity() - used < needed) {
+                if (count < starts.length && ring.capacity() < maxBytes) {
+                    grow(Math.min(maxBytes, Math.max(ring.capacity() * 2, used + needed)));
+                } else {
+                    evictOldest();
+                }
+            }
+            int tail = (head + used) % ring.capacity();
+            writeInt(tail, payload.length);
+            write((tail + LENGTH_BYTES) % ring.capacity(), payload);
+            starts[(first + count) % starts.length] = tail;
+            count++;
+            used += needed;
+            return true;
+        }
+
+        synchronized int readNewest(int offset, int limit, List<byte[]> into) {
+            for (int i = Math.max(0, offset); i < count && into.size() < limit; i++) {
+                int start = starts[(first + count - 1 - i) % starts.length];
+                byte[] payload = new byte[readInt(start)];
+                read((start + LENGTH_BYTES) % ring.capacity(), payload);
+                into.add(payload);
+            }
+            return count;
+        }
+
+        private void evictOldest() {
+            int length = readInt(starts[first]);
+            used -= LENGTH_BYTES + length;
+            head = (head + LENGTH_BYTES + length) % ring.capacity();
+            first = (first + 1) % starts.length;
+            count--;
+        }
+
+        private void grow(int newCapacity) {
+            // unwrap into the new buffer so the oldest record starts at offset 0
+            ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity);
+            byte[] live = new byte[used];
+            read(head, live);
+            grown.put(0, live);
+            int shift = head;
+            int oldCapacity = ring.capacity();
+            for (int i = 0; i < count; i++) {
+                int slot = (first + i) % starts.length;
+                starts[slot] = Math.floorMod(starts[slot] - shift, oldCapacity);
+            }
+            ring = grown;
+            head = 0;
+            capacity = newCapacity;
+        }
+
+        private void writeInt(int position, int value) {
+            write(position, ByteBuffer.allocate(LENGTH_BYTES).putInt(0, value).array());
+        }
+
+        private int readInt(int position) {
+            byte[] bytes = new byte[LENGTH_BYTES];
+            read(position, bytes);
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+
+        private void write(int position, byte[] source) {
+            int firstPart = Math.min(source.length, ring.capacity() - position);
+            ring.put(position, source, 0, firstPart);
+            ring.put(0, source, firstPart, source.length - firstPart);
+        }
+
+        private void read(int position, byte[] target) {
+            int firstPart = Math.min(target.length, ring.capacity() - position);
+            ring.get(position, target, 0, firstPart);
+            ring.get(0, target, firstPart, target.length - firstPart);
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.historymind.history_service.index;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.model.HistoryRecord;
+import com.historymind.history_service.model.SymbolTable;
+import com.historymind.history_service.service.ChatResponseListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-process index of events seen from the AI service, optionally seeded from a JSON
+ * snapshot file at startup. Writes go to a concurrent id map; reads use an immutable
+ * year-sorted snapshot with inverted postings on persons, places and keywords.
+ * <p>
+ * Rebuilding the snapshot sorts the whole index, so readers never do it: after new
+ * events arrive a background thread rebuilds it once {@code rebuild-delay-ms} has
+ * passed, coalescing the ingests in between, and swaps it in. Reads may therefore
+ * lag ingests by about that delay plus the rebuild time.
+ * <p>
+ * Answers reach {@link #onResponse} on the response path, often on an event-loop
+ * thread, so their events are indexed on the same background thread: encoding and the
+ * ingest listeners (search and suggest indexes) never run on I/O threads. At most
+ * {@code ingest-queue-capacity} answers wait there; further ones are dropped and counted.
+ */
+@Component
+@Slf4j
+public class EventIndex implements ChatResponseListener {
+
+    /** One page of {@link #timeline}; {@code nextCursor} is null on the last page. */
+    public record TimelinePage(List<HistoryRecord> records, String nextCursor) {
+    }
+
+    private final Map<String, HistoryRecord> byId = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final List<Consumer<HistoryRecord>> ingestListeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    private final int maxEvents;
+    private final int ingestQueueCapacity;
+    private final long rebuildDelayMs;
+    private final ScheduledExecutorService worker;
+    private final Counter rejected;
+    private final Counter droppedBatches;
+    private final Timer rebuildTimer;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile SymbolTable symbols = new SymbolTable();
+
+    @Autowired
+    public EventIndex(
+            @Value("${ai.index.max-events:50000}") int maxEvents,
+            @Value("${ai.index.snapshot:}") String snapshotPath,
+            @Value("${ai.index.rebuild-delay-ms:500}") long rebuildDelayMs,
+            @Value("${ai.index.ingest-queue-capacity:1000}") int ingestQueueCapacity,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        this(maxEvents, Duration.ofMillis(Math.max(1, rebuildDelayMs)), ingestQueueCapacity, meterRegistry);
+        if (!snapshotPath.isBlank()) {
+            // loaded off the startup path; answers from the AI service are indexed meanwhile
+            Thread.ofPlatform().daemon().name("event-index-load")
+                    .start(() -> loadSnapshot(Path.of(snapshotPath), objectMapper));
+        }
+    }
+
+    /**
+     * An index that ingests answers on the caller's thread and rebuilds its snapshot
+     * inline at the end of every ingest that changed it.
+     */
+    public EventIndex(int maxEvents, MeterRegistry meterRegistry) {
+        this(maxEvents, Duration.ZERO, 0, meterRegistry);
+    }
+
+    EventIndex(int maxEvents, Duration rebuildDelay, int ingestQueueCapacity, MeterRegistry meterRegistry) {
+        this.maxEvents = maxEvents;
+        this.rebuildDelayMs = rebuildDelay.toMillis();
+        this.ingestQueueCapacity = Math.max(1, ingestQueueCapacity);
+        this.worker = rebuildDelay.isZero() ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "event-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rebuildTimer = Timer.builder("events.index.rebuild")
+                .description("Time to rebuild the event index snapshot")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("events.index.rejected")
+                .description("Events not indexed because the index is full")
+                .register(meterRegistry);
+        this.droppedBatches = Counter.builder("events.index.ingest.dropped")
+                .description("Answers whose events were not indexed because the ingest queue was full")
+                .register(meterRegistry);
+        Gauge.builder("events.index.size", byId, Map::size)
+                .description("Events held in the local index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onResponse(String query, ChatResponse response) {
+        List<EventDTO> events = response.getEvents();
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        if (worker == null) {
+            ingest(events);
+            return;
+        }
+        if (pendingBatches.incrementAndGet() > ingestQueueCapacity) {
+            pendingBatches.decrementAndGet();
+            droppedBatches.increment();
+            return;
+        }
+        try {
+            worker.execute(() -> {
+                try {
+                    ingest(events);
+                } catch (RuntimeException e) {
+                    log.warn("⚠️ Failed to index events of an answer", e);
+                } finally {
+                    pendingBatches.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            pendingBatches.decrementAndGet();
+        }
+    }
+
+    public void ingest(Collection<EventDTO> events) {
+        boolean changed = false;
+        for (EventDTO dto : events) {
+            if (dto == null || dto.getId() == null) {
+                continue;
+            }
+            if (byId.size() >= maxEvents && !byId.containsKey(dto.getId())) {
+                rejected.increment();
+                continue;
+            }
+            HistoryRecord record = HistoryRecord.from(dto, symbols());
+            HistoryRecord previous = byId.put(record.getId(), record);
+            if (!record.equals(previous)) {
+                changed = true;
+                dirty.set(true);
+                for (Consumer<HistoryRecord> listener : ingestListeners) {
+                    listener.accept(record);
+                }
+            }
+        }
+        if (changed) {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Calls {@code listener} with every event that is new or changed from now on, and
+     * replays the events already indexed. An event indexed concurrently with the call
+     * may be delivered twice.
+     */
+    public void addIngestListener(Consumer<HistoryRecord> listener) {
+        ingestListeners.add(listener);
+        byId.values().forEach(listener);
+    }
+
+    /**
+     * The table new events are encoded against, replaced by a fresh one once full.
+     * Concurrent ingests may each start a table; every event keeps the one it was
+     * encoded against, so that only costs some sharing.
+     */
+    private SymbolTable symbols() {
+        SymbolTable current = symbols;
+        SymbolTable next = current.rotateIfFull();
+        if (next != current) {
+            symbols = next;
+        }
+        return next;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /** Visits every indexed event, in no particular order. */
+    public void forEachRecord(Consumer<HistoryRecord> action) {
+        byId.values().forEach(action);
+    }
+
+    /** Indexes a JSON array of events, e.g. an export of a previous run's events. */
+    public void loadSnapshot(Path path, ObjectMapper objectMapper) {
+        try (InputStream in = Files.newInputStream(path)) {
+            List<EventDTO> events = objectMapper.readValue(in, new TypeReference<List<EventDTO>>() { });
+            ingest(events);
+            log.info("📚 Loaded {} events from snapshot {}", events.size(), path);
+        } catch (IOException e) {
+            log.warn("⚠️ Could not load event snapshot {}", path, e);
+        }
+    }
+
+    public Optional<HistoryRecord> findById(String id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    /**
+     * Returns events matching every given filter, in chronological order. Null
+     * filters are ignored; names are matched on their normalized form.
+     */
+    public List<HistoryRecord> find(Integer year, String person, String place, String keyword, int limit) {
+        Snapshot current = snapshot();
+        int[] positions = null;
+        if (year != null) {
+            positions = current.yearRange(year, year);
+        }
+        positions = intersect(positions, current.postings(current.persons, person));
+        positions = intersect(positions, current.postings(current.places, place));
+        positions = intersect(positions, current.postings(current.keywords, keyword));
+        if (positions == null) {
+            positions = current.yearRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        List<HistoryRecord> result = new ArrayList<>(Math.min(limit, positions.length));
+        for (int i = 0; i < positions.length && result.size() < limit; i++) {
+            result.add(current.records[positions[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * Events with a known year in {@code [from, to]} (either bound may be null), in
+     * chronological order, optionally restricted to a person and/or place.
+     * <p>
+     * The cursor names the last event of the previous page by year and id rather than
+     * by position, so it stays valid when new events are indexed between pages.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public TimelinePage timeline(Integer from, Integer to, String person, String place, String cursor, int limit) {
+        Snapshot current = snapshot();
+        // unknown years sort first (Integer.MIN_VALUE) and never belong on a timeline
+        int start = Snapshot.lowerBound(current.years, from == null ? HistoryRecord.UNKNOWN_YEAR + 1 : from);
+        int end = to == null || to == Integer.MAX_VALUE
+                ? current.years.length
+                : Snapshot.lowerBound(current.years, to + 1);
+        if (cursor != null) {
+            start = Math.max(start, current.after(Cursor.decode(cursor)));
+        }
+
+        int[] persons = current.postings(current.persons, person);
+        int[] places = current.postings(current.places, place);
+        List<HistoryRecord> records = new ArrayList<>(Math.min(limit, Math.max(0, end - start)));
+        int last = -1;
+        if (persons == null && places == null) {
+            for (int i = start; i < end && records.size() < limit; i++) {
+                records.add(current.records[i]);
+                last = i;
+            }
+        } else {
+            // postings are ascending positions, so the [start, end) window is found by binary search
+            int[] a = persons != null ? persons : places;
+            int[] b = persons != null ? places : null;
+            int j = b == null ? 0 : Snapshot.lowerBound(b, start);
+            for (int i = Snapshot.lowerBound(a, start); i < a.length && a[i] < end && records.size() < limit; i++) {
+                if (b != null) {
+                    while (j < b.length && b[j] < a[i]) {
+                        j++;
+                    }
+                    if (j == b.length) {
+                        break;
+                    }
+                    if (b[j] != a[i]) {
+                        continue;
+                    }
+                }
+                records.add(current.records[a[i]]);
+                last = a[i];
+            }
+        }
+
+        boolean more = records.size() == limit && last + 1 < end;
+        String nextCursor = more ? Cursor.encode(current.records[last]) : null;
+        return new TimelinePage(records, nextCursor);
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (worker != null) {
+            worker.shutdownNow();
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (worker == null) {
+            rebuild();
+        } else if (rebuildScheduled.compareAndSet(false, true)) {
+            worker.schedule(() -> {
+                // cleared first, so an ingest during the rebuild schedules another one
+                rebuildScheduled.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    // readers keep the previous snapshot; the next ingest retries
+                    dirty.set(true);
+                    log.warn("⚠️ Failed to rebuild event index snapshot", e);
+                }
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void rebuild() {
+        if (dirty.getAndSet(false)) {
+            long start = System.nanoTime();
+            snapshot = Snapshot.build(byId.values());
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new HistoryRecord[0], new int[0], Map.of(), Map.of(), Map.of());
+
+        final HistoryRecord[] records;
+        final int[] years;
+        final Map<String, int[]> persons;
+        final Map<String, int[]> places;
+        final Map<String, int[]> keywords;
+
+        private Snapshot(HistoryRecord[] records, int[] years, Map<String, int[]> persons,
+                         Map<String, int[]> places, Map<String, int[]> keywords) {
+            this.records = records;
+            this.years = years;
+            this.persons = persons;
+            this.places = places;
+            this.keywords = keywords;
+        }
+
+        static Snapshot build(Collection<HistoryRecord> source) {
+            HistoryRecord[] records = source.toArray(new HistoryRecord[0]);
+            Arrays.sort(records, Comparator.comparingInt(HistoryRecord::getYear)
+                    .thenComparing(HistoryRecord::getId));
+            int[] years = new int[records.length];
+            for (int i = 0; i < records.length; i++) {
+                years[i] = records[i].getYear();
+            }
+            // tags repeat across events, so each distinct one is normalized once per build
+            Map<String, String> keys = new HashMap<>();
+            return new Snapshot(records, years,
+                    postings(records, HistoryRecord::getPersons, keys),
+                    postings(records, HistoryRecord::getPlaces, keys),
+                    postings(records, HistoryRecord::getKeywords, keys));
+        }
+
+        private static Map<String, int[]> postings(HistoryRecord[] records,
+                                                   Function<HistoryRecord, List<String>> terms,
+                                                   Map<String, String> keys) {
+            Map<String, IntList> lists = new HashMap<>();
+            for (int i = 0; i < records.length; i++) {
+                for (String term : terms.apply(records[i])) {
+                    // "" marks terms that normalize to nothing; a null value would not be memoized
+                    String key = keys.computeIfAbsent(term,
+                            t -> Objects.requireNonNullElse(QueryNormalizer.normalize(t), ""));
+                    if (!key.isEmpty()) {
+                        lists.computeIfAbsent(key, k -> new IntList()).addIfAbsent(i);
+                    }
+                }
+            }
+            Map<String, int[]> postings = new HashMap<>(lists.size() * 2);
+            lists.forEach((term, list) -> postings.put(term, list.toArray()));
+            return postings;
+        }
+
+        int[] yearRange(int from, int to) {
+            int start = lowerBound(years, from);
+            int end = to == Integer.MAX_VALUE ? years.length : lowerBound(years, to + 1);
+            int[] positions = new int[Math.max(0, end - start)];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = start + i;
+            }
+            return positions;
+        }
+
+        /** Position of the first record ordered after the cursor's (year, id). */
+        int after(Cursor cursor) {
+            int i = lowerBound(years, cursor.year());
+            while (i < records.length && years[i] == cursor.year()
+                    && records[i].getId().compareTo(cursor.id()) <= 0) {
+                i++;
+            }
+            return i;
+        }
+
+        int[] postings(Map<String, int[]> index, String term) {
+            if (term == null) {
+                return null;
+            }
+            String key = QueryNormalizer.normalize(term);
+            if (key == null) {
+                return null;
+            }
+            return index.getOrDefault(key, new int[0]);
+        }
+
+        static int lowerBound(int[] sorted, int value) {
+            int lo = 0, hi = sorted.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (sorted[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    record Cursor(int year, String id) {
+
+        static String encode(HistoryRecord record) {
+            byte[] raw = (record.getYear() + ":" + record.getId()).getBytes(StandardCharsets.UTF_8);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int colon = raw.indexOf(':');
+                return new Cursor(Integer.parseInt(raw.substring(0, colon)), raw.substring(colon + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed timeline cursor", e);
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void addIfAbsent(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.historymind.history_service.metrics;
+
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Stage timers for the chat pipeline. Connection acquire, connect and TLS times
+ * come from Reactor Netty's own {@code reactor.netty.*} meters (see WebClientConfig);
+ * this class covers upstream time-to-first-byte, body decode and total request time.
+ */
+@Component
+public class ChatMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_NO_DATA = "no_data";
+    public static final String OUTCOME_EMPTY = "empty";
+    public static final String OUTCOME_ERROR = "error";
+    public static final String OUTCOME_CANCELLED = "cancelled";
+    /** Dropped on purpose (overload, open circuit, expired deadline) rather than failed. */
+    public static final String OUTCOME_SHED = "shed";
+
+    private static final String NO_INTENT = "none";
+    private static final Pattern SAFE_INTENT = Pattern.compile("[a-z0-9_]{1,32}");
+
+    private final MeterRegistry meterRegistry;
+
+    public ChatMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordTimeToFirstByte(long nanos, String outcome) {
+        timer("chat.upstream.ttfb", "Time from sending the AI request to receiving response headers")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    public void recordDecode(long nanos, String outcome, String intent) {
+        timer("chat.upstream.decode", "Time spent reading and decoding the AI response body")
+                .tag("outcome", outcome)
+                .tag("intent", intentTag(intent))
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    public void recordRequest(String endpoint, long nanos, String outcome, String intent) {
+        timer("chat.request", "Total time spent handling a chat request in the controller")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .tag("intent", intentTag(intent))
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    public void recordDeadlineShed(String stage) {
+        Counter.builder("chat.deadline.shed")
+                .description("AI calls dropped because the caller's deadline had already passed")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public static String errorOutcome(Throwable error) {
+        return error instanceof ServiceOverloadedException || error instanceof DeadlineExceededException
+                ? OUTCOME_SHED : OUTCOME_ERROR;
+    }
+
+    public static String outcomeOf(ChatResponse response) {
+        if (response == null) {
+            return OUTCOME_EMPTY;
+        }
+        return response.isNoData() ? OUTCOME_NO_DATA : OUTCOME_SUCCESS;
+    }
+
+    static String intentTag(String intent) {
+        if (intent == null || intent.isBlank()) {
+            return NO_INTENT;
+        }
+        // intents come from the AI service; keep tag cardinality bounded
+        return SAFE_INTENT.matcher(intent).matches() ? intent : "other";
+    }
+
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram();
+    }
+}
@@ -0,0 +1,64 @@
+package com.historymind.history_service.model;
+
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Retained form of a {@link ChatResponse}: events are {@link HistoryRecord}s encoded
+ * against the cache's {@link SymbolTable}, and a {@code ChatResponse} is rebuilt only when the answer
+ * is about to be served.
+ */
+@Value
+public class CompactChatResponse {
+
+    String query;
+    String intent;
+    String answer;
+    boolean noData;
+    @Getter(AccessLevel.NONE)
+    HistoryRecord[] events;
+
+    public static CompactChatResponse from(ChatResponse response, SymbolTable symbols) {
+        HistoryRecord[] events = null;
+        if (response.getEvents() != null) {
+            // null elements in the AI Service's list are skipped, as EventIndex does
+            events = response.getEvents().stream()
+                    .filter(Objects::nonNull)
+                    .map(dto -> HistoryRecord.from(dto, symbols))
+                    .toArray(HistoryRecord[]::new);
+        }
+        return new CompactChatResponse(
+                response.getQuery(),
+                symbols.canonical(response.getIntent()),
+                response.getAnswer(),
+                response.isNoData(),
+                events);
+    }
+
+    public int eventCount() {
+        return events == null ? 0 : events.length;
+    }
+
+    public ChatResponse toChatResponse() {
+        ChatResponse response = new ChatResponse();
+        response.setQuery(query);
+        response.setIntent(intent);
+        response.setAnswer(answer);
+        response.setNoData(noData);
+        if (events != null) {
+            List<EventDTO> dtos = new ArrayList<>(events.length);
+            for (HistoryRecord event : events) {
+                dtos.add(event.toEventDTO());
+            }
+            response.setEvents(dtos);
+        }
+        return response;
+    }
+}
@@ -1,4 +1,181 @@
 package com.historymind.history_service.model;
 
+import com.historymind.history_service.dto.EventDTO;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, compact local copy of an {@link EventDTO} returned by the AI service.
+ * <p>
+ * Persons, places and keywords are ids in the owner's {@link SymbolTable}, packed into a
+ * single {@code int[]} ({@code persons | places | keywords}); the list getters are
+ * read-only views over it, and strings are only materialized again in {@link #toEventDTO()}.
+ * Equality compares the tag values, so events encoded against different tables compare
+ * equal when their content is.
+ */
+@Value
 public class HistoryRecord {
+
+    public static final int UNKNOWN_YEAR = Integer.MIN_VALUE;
+
+    private static final int[] NO_TAGS = new int[0];
+
+    String id;
+    int year;
+    String event;
+    String story;
+    String tone;
+    String title;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    SymbolTable symbols;
+    @Getter(AccessLevel.NONE)
+    int[] tags;
+    @Getter(AccessLevel.NONE)
+    int personsEnd;
+    @Getter(AccessLevel.NONE)
+    int placesEnd;
+
+    public static HistoryRecord from(EventDTO dto, SymbolTable symbols) {
+        List<String> persons = nonBlank(dto.getPersons());
+        List<String> places = nonBlank(dto.getPlaces());
+        List<String> keywords = nonBlank(dto.getKeywords());
+
+        int total = persons.size() + places.size() + keywords.size();
+        int[] tags = total == 0 ? NO_TAGS : new int[total];
+        int i = 0;
+        for (String person : persons) {
+            tags[i++] = symbols.intern(person);
+        }
+        for (String place : places) {
+            tags[i++] = symbols.intern(place);
+        }
+        for (String keyword : keywords) {
+            tags[i++] = symbols.intern(keyword);
+        }
+
+        return new HistoryRecord(
+                dto.getId(),
+                dto.getYear() == null ? UNKNOWN_YEAR : dto.getYear(),
+                dto.getEvent(),
+                dto.getStory(),
+                symbols.canonical(dto.getTone()),
+                dto.getTitle(),
+                symbols,
+                tags,
+                persons.size(),
+                persons.size() + places.size());
+    }
+
+    public boolean hasYear() {
+        return year != UNKNOWN_YEAR;
+    }
+
+    public List<String> getPersons() {
+        return new TagView(symbols, tags, 0, personsEnd);
+    }
+
+    public List<String> getPlaces() {
+        return new TagView(symbols, tags, personsEnd, placesEnd);
+    }
+
+    public List<String> getKeywords() {
+        return new TagView(symbols, tags, placesEnd, tags.length);
+    }
+
+    public EventDTO toEventDTO() {
+        EventDTO dto = new EventDTO();
+        dto.setId(id);
+        dto.setYear(hasYear() ? year : null);
+        dto.setEvent(event);
+        dto.setStory(story);
+        dto.setTone(tone);
+        dto.setTitle(title);
+        dto.setPersons(List.copyOf(getPersons()));
+        dto.setPlaces(List.copyOf(getPlaces()));
+        dto.setKeywords(List.copyOf(getKeywords()));
+        return dto;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HistoryRecord other)) {
+            return false;
+        }
+        if (year != other.year
+                || personsEnd != other.personsEnd
+                || placesEnd != other.placesEnd
+                || tags.length != other.tags.length
+                || !Objects.equals(id, other.id)
+                || !Objects.equals(event, other.event)
+                || !Objects.equals(story, other.story)
+                || !Objects.equals(tone, other.tone)
+                || !Objects.equals(title, other.title)) {
+            return false;
+        }
+        if (symbols == other.symbols) {
+            return Arrays.equals(tags, other.tags);
+        }
+        for (int i = 0; i < tags.length; i++) {
+            if (!symbols.symbol(tags[i]).equals(other.symbols.symbol(other.tags[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(id, year, event, story, tone, title, personsEnd, placesEnd);
+        for (int tag : tags) {
+            result = 31 * result + symbols.symbol(tag).hashCode();
+        }
+        return result;
+    }
+
+    private static List<String> nonBlank(List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return List.of();
+        }
+        return values.stream().filter(v -> v != null && !v.isBlank()).toList();
+    }
+
+    private static final class TagView extends AbstractList<String> implements RandomAccess {
+
+        private final SymbolTable symbols;
+        private final int[] tags;
+        private final int from;
+        private final int to;
+
+        TagView(SymbolTable symbols, int[] tags, int from, int to) {
+            this.symbols = symbols;
+            this.tags = tags;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return symbols.symbol(tags[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.historymind.history_service.model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary for names that repeat across events (persons, places, keywords, tones).
+ * Each distinct string is stored once and referred to by an int id. Lookups of known
+ * symbols are lock-free; only adding a new symbol synchronizes.
+ * <p>
+ * A table belongs to the component that retains the events (the event index, the
+ * response cache) and symbols are never removed from it. The capacity is a soft bound:
+ * once a table is {@link #isFull() full} the owner encodes new events against a fresh
+ * table from {@link #rotateIfFull()}, and the old one is collected together with the
+ * last {@link HistoryRecord} that refers to it.
+ */
+public final class SymbolTable {
+
+    public static final int DEFAULT_CAPACITY = 65_536;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final int capacity;
+    private volatile String[] symbols = new String[256];
+    private int size;
+
+    public SymbolTable() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SymbolTable(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Always succeeds, so all tags of one event can be encoded against one table even
+     * when it crosses its capacity on the way.
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            String[] current = symbols;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = value;
+            symbols = current;
+            // published through the map only after the array holds the symbol
+            ids.put(value, size);
+            return size++;
+        }
+    }
+
+    public String symbol(int id) {
+        return symbols[id];
+    }
+
+    /** Returns the instance held by this table that is equal to {@code value}, or null for null. */
+    public String canonical(String value) {
+        return value == null ? null : symbol(intern(value));
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    public boolean isFull() {
+        return ids.size() >= capacity;
+    }
+
+    /** This table, or a new empty one with the same capacity if this one is full. */
+    public SymbolTable rotateIfFull() {
+        return isFull() ? new SymbolTable(capacity) : this;
+    }
+}
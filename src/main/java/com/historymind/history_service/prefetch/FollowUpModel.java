@@ -0,0 +1,209 @@
+package com.historymind.history_service.prefetch;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.dto.EventDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Predicts the follow-ups to an answer from what users asked next before.
+ * <p>
+ * The primary signal is question-to-question transitions: whenever a session asks a
+ * question right after another one ({@link #learnTransition}), the pair is counted under
+ * the normalized earlier question, and an answer to that question predicts its most
+ * frequent successors first. Transitions only help for questions that were asked
+ * before, so the rest of the predictions come from the persons and places the answer
+ * mentions: a question "about" an entity is one whose normalized text contains the
+ * entity's normalized name, and each entity predicts its most asked question about it,
+ * or a template question when nobody has asked about it yet.
+ * <p>
+ * Every question or entity keeps its few most counted successors (Space-Saving: a
+ * newcomer replaces the least counted one and inherits its count), and at most
+ * {@code maxKeys} questions and as many entities are tracked.
+ */
+public class FollowUpModel {
+
+    static final int QUESTIONS_PER_ENTITY = 4;
+
+    private final Cache<String, Questions> byEntity;
+    private final Cache<String, Questions> byPrevious;
+
+    public FollowUpModel(long maxKeys) {
+        this.byEntity = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .executor(Runnable::run)
+                .build();
+        this.byPrevious = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /** Counts {@code next} as a follow-up to {@code previous}, asked in the same session. */
+    public void learnTransition(String previous, String next) {
+        String previousKey = QueryNormalizer.normalize(previous);
+        String nextKey = QueryNormalizer.normalize(next);
+        if (previousKey == null || nextKey == null || previousKey.equals(nextKey)) {
+            return;
+        }
+        byPrevious.get(previousKey, key -> new Questions()).add(nextKey, next.strip());
+    }
+
+    public void learn(String query, List<EventDTO> events) {
+        String normalizedQuery = QueryNormalizer.normalize(query);
+        if (normalizedQuery == null || events == null) {
+            return;
+        }
+        for (String entity : entities(events).keySet()) {
+            String normalizedEntity = QueryNormalizer.normalize(entity);
+            if (normalizedEntity != null && normalizedQuery.contains(normalizedEntity)) {
+                byEntity.get(normalizedEntity, key -> new Questions()).add(normalizedQuery, query.strip());
+            }
+        }
+    }
+
+    /**
+     * Likely next questions after an answer to {@code query}: its learned successors, most
+     * frequent first, then one question per person and place in order of appearance,
+     * skipping entities the query already names.
+     */
+    public List<String> predict(String query, List<EventDTO> events, int limit) {
+        String normalizedQuery = QueryNormalizer.normalize(query);
+        Set<String> predictions = new LinkedHashSet<>();
+        Questions successors = normalizedQuery == null ? null : byPrevious.getIfPresent(normalizedQuery);
+        if (successors != null) {
+            for (String successor : successors.ranked()) {
+                if (predictions.size() >= limit) {
+                    break;
+                }
+                predictions.add(successor);
+            }
+        }
+        for (Map.Entry<String, Kind> entity : entities(events).entrySet()) {
+            if (predictions.size() >= limit) {
+                break;
+            }
+            String normalizedEntity = QueryNormalizer.normalize(entity.getKey());
+            if (normalizedEntity == null
+                    || (normalizedQuery != null && normalizedQuery.contains(normalizedEntity))) {
+                continue;
+            }
+            Questions learned = byEntity.getIfPresent(normalizedEntity);
+            String best = learned == null ? null : learned.best(normalizedQuery);
+            predictions.add(best != null ? best : entity.getValue().template(entity.getKey().strip()));
+        }
+        return List.copyOf(predictions);
+    }
+
+    long trackedEntities() {
+        byEntity.cleanUp();
+        return byEntity.estimatedSize();
+    }
+
+    long trackedQuestions() {
+        byPrevious.cleanUp();
+        return byPrevious.estimatedSize();
+    }
+
+    private static Map<String, Kind> entities(List<EventDTO> events) {
+        Map<String, Kind> entities = new LinkedHashMap<>();
+        if (events == null) {
+            return entities;
+        }
+        for (EventDTO event : events) {
+            addAll(entities, event == null ? null : event.getPersons(), Kind.PERSON);
+        }
+        for (EventDTO event : events) {
+            addAll(entities, event == null ? null : event.getPlaces(), Kind.PLACE);
+        }
+        return entities;
+    }
+
+    private static void addAll(Map<String, Kind> entities, List<String> names, Kind kind) {
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                entities.putIfAbsent(name, kind);
+            }
+        }
+    }
+
+    private enum Kind {
+        PERSON("%s là ai?"),
+        PLACE("%s ở đâu?");
+
+        private final String template;
+
+        Kind(String template) {
+            this.template = template;
+        }
+
+        String template(String name) {
+            return template.formatted(name);
+        }
+    }
+
+    private static final class Questions {
+
+        private final String[] keys = new String[QUESTIONS_PER_ENTITY];
+        private final String[] texts = new String[QUESTIONS_PER_ENTITY];
+        private final long[] counts = new long[QUESTIONS_PER_ENTITY];
+
+        synchronized void add(String key, String text) {
+            int weakest = 0;
+            for (int i = 0; i < keys.length; i++) {
+                if (key.equals(keys[i])) {
+                    counts[i]++;
+                    return;
+                }
+                if (keys[i] == null) {
+                    keys[i] = key;
+                    texts[i] = text;
+                    counts[i] = 1;
+                    return;
+                }
+                if (counts[i] < counts[weakest]) {
+                    weakest = i;
+                }
+            }
+            keys[weakest] = key;
+            texts[weakest] = text;
+            counts[weakest]++;
+        }
+
+        synchronized String best(String excludedKey) {
+            int best = -1;
+            for (int i = 0; i < keys.length && keys[i] != null; i++) {
+                if (!keys[i].equals(excludedKey) && (best < 0 || counts[i] > counts[best])) {
+                    best = i;
+                }
+            }
+            return best < 0 ? null : texts[best];
+        }
+
+        synchronized List<String> ranked() {
+            Integer[] order = new Integer[keys.length];
+            int size = 0;
+            while (size < keys.length && keys[size] != null) {
+                order[size] = size;
+                size++;
+            }
+            Arrays.sort(order, 0, size, (a, b) -> Long.compare(counts[b], counts[a]));
+            List<String> ranked = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                ranked.add(texts[order[i]]);
+            }
+            return ranked;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.historymind.history_service.prefetch;
+
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.cache.ResponseCache;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.resilience.AdaptiveConcurrencyLimiter;
+import com.historymind.history_service.service.ChatResponseListener;
+import com.historymind.history_service.service.ChatService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * After a fresh answer, asks the AI service in the background for the follow-ups
+ * {@link FollowUpModel} predicts, so they are already cached when the user asks. The
+ * model learns from the answers themselves and, through {@link #onFollowUp}, from the
+ * consecutive questions of sessions that keep a history.
+ * <p>
+ * Prefetches are strictly background work with their own budget: at most
+ * {@code max-per-minute} are started (with bursts up to {@code max-in-flight}) and at
+ * most {@code max-in-flight} run at once. They go through
+ * {@link ChatService#prefetchChat}, so they hold no foreground limiter permit, are not
+ * hedged and are not counted by the circuit breaker. None starts while foreground calls
+ * use {@code busy-threshold} or more of the adaptive concurrency limit, and running
+ * ones are cancelled (checked every {@code busy-check-ms}) once they do. Questions
+ * already cached are skipped without spending budget.
+ */
+@Component
+@Slf4j
+public class FollowUpPrefetcher implements ChatResponseListener {
+
+    private final boolean enabled;
+    private final int maxInFlight;
+    private final int maxPerAnswer;
+    private final double busyThreshold;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Duration busyCheckInterval;
+    private final LongSupplier clock;
+
+    private final ChatService chatService;
+    private final ResponseCache responseCache;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final FollowUpModel model;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong nextStart = new AtomicLong(Long.MIN_VALUE);
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private final Counter issued;
+    private final Counter completed;
+    private final Counter failed;
+    private final Counter empty;
+    private final Counter cancelledBusy;
+    private final Counter skippedCached;
+    private final Counter skippedBusy;
+    private final Counter skippedBudget;
+
+    @Autowired
+    public FollowUpPrefetcher(
+            @Value("${ai.prefetch.enabled:false}") boolean enabled,
+            @Value("${ai.prefetch.max-per-minute:30}") int maxPerMinute,
+            @Value("${ai.prefetch.max-in-flight:2}") int maxInFlight,
+            @Value("${ai.prefetch.max-per-answer:2}") int maxPerAnswer,
+            @Value("${ai.prefetch.busy-threshold:0.5}") double busyThreshold,
+            @Value("${ai.prefetch.busy-check-ms:100}") long busyCheckMs,
+            @Value("${ai.prefetch.max-entities:10000}") long maxEntities,
+            // lazy: ChatService notifies this listener, so it cannot be built before it
+            @Lazy ChatService chatService,
+            ResponseCache responseCache,
+            AdaptiveConcurrencyLimiter concurrencyLimiter,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, maxPerMinute, maxInFlight, maxPerAnswer, busyThreshold, Duration.ofMillis(busyCheckMs),
+                new FollowUpModel(maxEntities), chatService, responseCache, concurrencyLimiter, meterRegistry,
+                System::nanoTime);
+    }
+
+    FollowUpPrefetcher(boolean enabled, int maxPerMinute, int maxInFlight, int maxPerAnswer, double busyThreshold,
+                       Duration busyCheckInterval, FollowUpModel model, ChatService chatService, ResponseCache responseCache,
+                       AdaptiveConcurrencyLimiter concurrencyLimiter, MeterRegistry meterRegistry,
+                       LongSupplier clock) {
+        this.enabled = enabled;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxPerAnswer = Math.max(0, maxPerAnswer);
+        this.busyThreshold = busyThreshold;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, maxPerMinute);
+        this.burstNanos = intervalNanos * this.maxInFlight;
+        this.busyCheckInterval = busyCheckInterval;
+        this.clock = clock;
+        this.model = model;
+        this.chatService = chatService;
+        this.responseCache = responseCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+
+        this.issued = prefetchCounter(meterRegistry, "issued");
+        this.completed = prefetchCounter(meterRegistry, "completed");
+        this.failed = prefetchCounter(meterRegistry, "failed");
+        this.empty = prefetchCounter(meterRegistry, "empty");
+        this.cancelledBusy = prefetchCounter(meterRegistry, "cancelled_busy");
+        this.skippedCached = prefetchCounter(meterRegistry, "skipped_cached");
+        this.skippedBusy = prefetchCounter(meterRegistry, "skipped_busy");
+        this.skippedBudget = prefetchCounter(meterRegistry, "skipped_budget");
+    }
+
+    @Override
+    public void onResponse(String query, ChatResponse response) {
+        String key = QueryNormalizer.normalize(query);
+        if (!enabled || key == null || pending.contains(key)) {
+            // our own prefetches neither teach the model nor trigger further prefetches
+            return;
+        }
+        model.learn(query, response.getEvents());
+        for (String followUp : model.predict(query, response.getEvents(), maxPerAnswer)) {
+            prefetch(followUp);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Called when a session asks {@code query} right after {@code previousQuery}. */
+    public void onFollowUp(String previousQuery, String query) {
+        if (enabled) {
+            model.learnTransition(previousQuery, query);
+        }
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private void prefetch(String query) {
+        String key = QueryNormalizer.normalize(query);
+        if (key == null || pending.contains(key) || responseCache.contains(key)) {
+            skippedCached.increment();
+            return;
+        }
+        if (isBusy() || inFlight.get() >= maxInFlight) {
+            skippedBusy.increment();
+            return;
+        }
+        if (!tryStart()) {
+            skippedBudget.increment();
+            return;
+        }
+        if (!pending.add(key)) {
+            return;
+        }
+
+        inFlight.incrementAndGet();
+        issued.increment();
+        log.debug("🔮 Prefetching follow-up: {}", query);
+        chatService.prefetchChat(query)
+                .doOnSuccess(response -> {
+                    if (response == null) {
+                        // e.g. the circuit breaker is not closed
+                        empty.increment();
+                    }
+                })
+                .doOnCancel(cancelledBusy::increment)
+                .takeUntilOther(Flux.interval(busyCheckInterval).filter(tick -> isBusy()))
+                .doFinally(signal -> {
+                    pending.remove(key);
+                    inFlight.decrementAndGet();
+                })
+                .subscribe(
+                        response -> completed.increment(),
+                        e -> {
+                            failed.increment();
+                            log.debug("Prefetch of '{}' failed: {}", query, e.toString());
+                        });
+    }
+
+    private boolean isBusy() {
+        return concurrencyLimiter.utilization() >= busyThreshold;
+    }
+
+    private boolean tryStart() {
+        // GCRA, as in ClientRateLimiter, with a single bucket
+        long now = clock.getAsLong();
+        while (true) {
+            long current = nextStart.get();
+            long next = Math.max(current, now - burstNanos) + intervalNanos;
+            if (next > now) {
+                return false;
+            }
+            if (nextStart.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static Counter prefetchCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("chat.prefetch")
+                .description("Follow-up prefetch decisions")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,219 @@
+package com.historymind.history_service.resilience;
+
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gradient-style concurrency limit for calls to the AI service. The limit grows
+ * while observed RTT stays close to its long-term average and shrinks when RTT
+ * rises or the upstream times out; calls above the limit are rejected immediately.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double LONG_RTT_WINDOW = 600;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+
+    private volatile double limit;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimiter(
+            @Value("${ai.limiter.enabled:true}") boolean enabled,
+            @Value("${ai.limiter.initial-limit:20}") int initialLimit,
+            @Value("${ai.limiter.min-limit:4}") int minLimit,
+            @Value("${ai.limiter.max-limit:200}") int maxLimit,
+            @Value("${ai.limiter.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${ai.limiter.smoothing:0.2}") double smoothing,
+            @Value("${ai.limiter.retry-after-seconds:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.rejected = Counter.builder("chat.limiter.rejected")
+                .description("AI calls rejected because the concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("chat.limiter.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit for the AI service")
+                .register(meterRegistry);
+        Gauge.builder("chat.limiter.inflight", inFlight, AtomicInteger::get)
+                .description("AI calls currently in flight through the limiter")
+                .register(meterRegistry);
+    }
+
+    public static AdaptiveConcurrencyLimiter unlimited() {
+        return new AdaptiveConcurrencyLimiter(false, 1, 1, 1, 1, 1, 1, new SimpleMeterRegistry());
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Share of the current limit in use. When limiting is disabled calls are still
+     * counted, against the initial limit, so background work can yield to them either way.
+     */
+    public double utilization() {
+        return inFlight.get() / limit;
+    }
+
+    public <T> Mono<T> limit(Mono<T> call) {
+        if (!enabled) {
+            return Mono.defer(() -> {
+                inFlight.incrementAndGet();
+                return call.doFinally(signal -> inFlight.decrementAndGet());
+            });
+        }
+        return Mono.defer(() -> {
+            Permit permit = tryAcquire();
+            if (permit == null) {
+                return Mono.error(rejection());
+            }
+            return call
+                    .doOnSuccess(v -> permit.success())
+                    .doOnError(permit::failure)
+                    .doOnCancel(permit::ignore);
+        });
+    }
+
+    public <T> Flux<T> limit(Flux<T> call) {
+        if (!enabled) {
+            return Flux.defer(() -> {
+                inFlight.incrementAndGet();
+                return call.doFinally(signal -> inFlight.decrementAndGet());
+            });
+        }
+        return Flux.defer(() -> {
+            Permit permit = tryAcquire();
+            if (permit == null) {
+                return Flux.error(rejection());
+            }
+            return call
+                    .doOnComplete(permit::success)
+                    .doOnError(permit::failure)
+                    .doOnCancel(permit::ignore);
+        });
+    }
+
+    Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    private ServiceOverloadedException rejection() {
+        return new ServiceOverloadedException("AI service concurrency limit reached", retryAfterSeconds);
+    }
+
+    synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        double rtt = Math.max(1, rttNanos);
+        longRttNanos = longRttNanos == 0 ? rtt : longRttNanos + (rtt - longRttNanos) / LONG_RTT_WINDOW;
+        if (longRttNanos / rtt > 2) {
+            // RTT dropped sharply (e.g. upstream recovered); let the baseline follow quickly
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rtt));
+        double target = current * gradient + Math.sqrt(current);
+        if (target > current && inFlightAtStart < current / 2) {
+            // not using the current limit, so there is no evidence that a higher one is safe
+            return;
+        }
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    synchronized void onDropped() {
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+
+    static boolean isOverloadSignal(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof TimeoutException || e instanceof WebClientRequestException) {
+                return true;
+            }
+            if (e instanceof WebClientResponseException response) {
+                int status = response.getStatusCode().value();
+                return status == 429 || status == 503 || status == 504;
+            }
+            if (e.getCause() == e) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        void success() {
+            if (release()) {
+                onSample(System.nanoTime() - startNanos, inFlightAtStart);
+            }
+        }
+
+        void failure(Throwable error) {
+            if (release() && isOverloadSignal(error)) {
+                onDropped();
+            }
+        }
+
+        void ignore() {
+            release();
+        }
+
+        private boolean release() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
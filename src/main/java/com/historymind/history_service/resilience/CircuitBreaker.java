@@ -0,0 +1,353 @@
+package com.historymind.history_service.resilience;
+
+import com.historymind.history_service.exception.CircuitOpenException;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free circuit breaker for the AI service. Outcomes go into a count-based
+ * ring of atomics; state changes are CAS swaps of an immutable {@link Phase}.
+ * Opens on failure rate or slow-call rate, and lets a fixed number of probes
+ * through once the open wait has elapsed. If the probes have not settled the state
+ * within {@code half-open-timeout-seconds}, the circuit opens again.
+ */
+@Component
+@Slf4j
+public class CircuitBreaker implements HealthIndicator {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    static final Status CIRCUIT_OPEN = new Status("CIRCUIT_OPEN");
+    static final Status CIRCUIT_HALF_OPEN = new Status("CIRCUIT_HALF_OPEN");
+
+    private static final int EMPTY = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILURE = 2;
+    private static final int SLOW = 4;
+
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long openWaitNanos;
+    private final int halfOpenPermittedCalls;
+    private final long halfOpenTimeoutNanos;
+    private final LongSupplier clock;
+
+    private final AtomicReference<Phase> phase;
+    private final AtomicIntegerArray window;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger slowCalls = new AtomicInteger();
+
+    private final Counter rejected;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    @Autowired
+    public CircuitBreaker(
+            @Value("${ai.circuit-breaker.enabled:true}") boolean enabled,
+            @Value("${ai.circuit-breaker.window-size:50}") int windowSize,
+            @Value("${ai.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${ai.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${ai.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+            @Value("${ai.circuit-breaker.slow-call-duration-ms:10000}") long slowCallDurationMs,
+            @Value("${ai.circuit-breaker.open-wait-seconds:30}") long openWaitSeconds,
+            @Value("${ai.circuit-breaker.half-open-permitted-calls:3}") int halfOpenPermittedCalls,
+            @Value("${ai.circuit-breaker.half-open-timeout-seconds:60}") long halfOpenTimeoutSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                Duration.ofMillis(slowCallDurationMs), Duration.ofSeconds(openWaitSeconds),
+                halfOpenPermittedCalls, Duration.ofSeconds(halfOpenTimeoutSeconds), meterRegistry, System::nanoTime);
+    }
+
+    CircuitBreaker(boolean enabled, int windowSize, int minimumCalls, double failureRateThreshold,
+                   double slowCallRateThreshold, Duration slowCallDuration, Duration openWait,
+                   int halfOpenPermittedCalls, Duration halfOpenTimeout, MeterRegistry meterRegistry,
+                   LongSupplier clock) {
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.openWaitNanos = openWait.toNanos();
+        this.halfOpenPermittedCalls = halfOpenPermittedCalls;
+        this.halfOpenTimeoutNanos = halfOpenTimeout.toNanos();
+        this.clock = clock;
+        this.window = new AtomicIntegerArray(windowSize);
+        this.phase = new AtomicReference<>(Phase.closed());
+
+        this.rejected = Counter.builder("chat.circuit.rejected")
+                .description("AI calls failed fast because the circuit was open")
+                .register(meterRegistry);
+        for (State state : State.values()) {
+            transitions.put(state, Counter.builder("chat.circuit.transitions")
+                    .description("Circuit breaker state transitions")
+                    .tag("to", state.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("chat.circuit.state", this, cb -> cb.getState().ordinal())
+                .description("Circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    public static CircuitBreaker disabled() {
+        return new CircuitBreaker(false, 1, 1, 1, 1, Duration.ZERO, Duration.ZERO, 1, Duration.ZERO,
+                new SimpleMeterRegistry(), System::nanoTime);
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    public <T> Mono<T> protect(Mono<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Mono.defer(() -> {
+            Call permit = tryAcquire();
+            if (permit == null) {
+                return Mono.error(rejection());
+            }
+            return call
+                    .doOnSuccess(v -> permit.complete(null))
+                    .doOnError(permit::complete)
+                    .doOnCancel(permit::abandon);
+        });
+    }
+
+    public <T> Flux<T> protect(Flux<T> call) {
+        if (!enabled) {
+            return call;
+        }
+        return Flux.defer(() -> {
+            Call permit = tryAcquire();
+            if (permit == null) {
+                return Flux.error(rejection());
+            }
+            return call
+                    .doOnComplete(() -> permit.complete(null))
+                    .doOnError(permit::complete)
+                    .doOnCancel(permit::abandon);
+        });
+    }
+
+    @Override
+    public Health health() {
+        Phase current = phase.get();
+        Health.Builder builder = switch (current.state) {
+            case CLOSED -> Health.up();
+            case OPEN -> Health.status(CIRCUIT_OPEN);
+            case HALF_OPEN -> Health.status(CIRCUIT_HALF_OPEN);
+        };
+        int calls = recorded.get();
+        return builder
+                .withDetail("state", current.state)
+                .withDetail("bufferedCalls", calls)
+                .withDetail("failureRate", calls == 0 ? 0.0 : (double) failures.get() / calls)
+                .withDetail("slowCallRate", calls == 0 ? 0.0 : (double) slowCalls.get() / calls)
+                .build();
+    }
+
+    Call tryAcquire() {
+        while (true) {
+            Phase current = phase.get();
+            switch (current.state) {
+                case CLOSED:
+                    return new Call(current);
+                case OPEN:
+                    if (clock.getAsLong() - current.sinceNanos < openWaitNanos) {
+                        rejected.increment();
+                        return null;
+                    }
+                    transition(current, Phase.halfOpen(clock.getAsLong(), halfOpenPermittedCalls));
+                    continue;
+                case HALF_OPEN:
+                    if (clock.getAsLong() - current.sinceNanos >= halfOpenTimeoutNanos) {
+                        // probes that never report back must not pin the circuit half-open
+                        transition(current, Phase.open(clock.getAsLong()));
+                        continue;
+                    }
+                    if (current.takeProbe()) {
+                        return new Call(current);
+                    }
+                    rejected.increment();
+                    return null;
+                default:
+                    throw new IllegalStateException(current.state.name());
+            }
+        }
+    }
+
+    private ServiceOverloadedException rejection() {
+        Phase current = phase.get();
+        long remainingNanos = current.state == State.OPEN
+                ? openWaitNanos - (clock.getAsLong() - current.sinceNanos)
+                : 0;
+        return new CircuitOpenException(Math.max(1, Duration.ofNanos(remainingNanos).toSeconds()));
+    }
+
+    private void onOutcome(Phase acquiredIn, int outcome) {
+        Phase current = phase.get();
+        if (current != acquiredIn) {
+            return;
+        }
+        boolean bad = (outcome & (FAILURE | SLOW)) != 0;
+        if (current.state == State.HALF_OPEN) {
+            if (bad) {
+                transition(current, Phase.open(clock.getAsLong()));
+            } else if (current.probeSuccesses.incrementAndGet() >= halfOpenPermittedCalls) {
+                transition(current, Phase.closed());
+            }
+            return;
+        }
+
+        int slot = (int) (cursor.getAndIncrement() % windowSize);
+        int previous = window.getAndSet(slot, outcome);
+        adjust(previous, -1);
+        adjust(outcome, 1);
+
+        int calls = recorded.get();
+        if (calls >= minimumCalls) {
+            double failureRate = (double) failures.get() / calls;
+            double slowRate = (double) slowCalls.get() / calls;
+            if (failureRate >= failureRateThreshold || slowRate >= slowCallRateThreshold) {
+                transition(current, Phase.open(clock.getAsLong()));
+            }
+        }
+    }
+
+    private void adjust(int outcome, int delta) {
+        if (outcome == EMPTY) {
+            return;
+        }
+        recorded.addAndGet(delta);
+        if ((outcome & FAILURE) != 0) {
+            failures.addAndGet(delta);
+        }
+        if ((outcome & SLOW) != 0) {
+            slowCalls.addAndGet(delta);
+        }
+    }
+
+    private void transition(Phase from, Phase to) {
+        if (!phase.compareAndSet(from, to)) {
+            return;
+        }
+        if (to.state != State.HALF_OPEN) {
+            resetWindow();
+        }
+        transitions.get(to.state).increment();
+        log.warn("🔌 AI service circuit {} -> {}", from.state, to.state);
+    }
+
+    private void resetWindow() {
+        for (int i = 0; i < windowSize; i++) {
+            adjust(window.getAndSet(i, EMPTY), -1);
+        }
+    }
+
+    private static final class Phase {
+        final State state;
+        final long sinceNanos;
+        final AtomicInteger probesLeft;
+        final AtomicInteger probeSuccesses;
+
+        private Phase(State state, long sinceNanos, int probes) {
+            this.state = state;
+            this.sinceNanos = sinceNanos;
+            this.probesLeft = new AtomicInteger(probes);
+            this.probeSuccesses = new AtomicInteger();
+        }
+
+        static Phase closed() {
+            return new Phase(State.CLOSED, 0, 0);
+        }
+
+        static Phase open(long now) {
+            return new Phase(State.OPEN, now, 0);
+        }
+
+        static Phase halfOpen(long now, int probes) {
+            return new Phase(State.HALF_OPEN, now, probes);
+        }
+
+        /** Claims a probe slot; never drives the count below zero, so releases stay balanced. */
+        boolean takeProbe() {
+            while (true) {
+                int left = probesLeft.get();
+                if (left <= 0) {
+                    return false;
+                }
+                if (probesLeft.compareAndSet(left, left - 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    final class Call {
+        private final Phase acquiredIn;
+        private final long startNanos = clock.getAsLong();
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Call(Phase acquiredIn) {
+            this.acquiredIn = acquiredIn;
+        }
+
+        void complete(Throwable error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            if (error instanceof ServiceOverloadedException || error instanceof DeadlineExceededException) {
+                // shed locally or abandoned by the caller; says nothing about the AI service's health
+                releaseProbe();
+                return;
+            }
+            int outcome = error == null ? SUCCESS : FAILURE;
+            if (clock.getAsLong() - startNanos >= slowCallNanos) {
+                outcome |= SLOW;
+            }
+            onOutcome(acquiredIn, outcome);
+        }
+
+        void abandon() {
+            if (done.compareAndSet(false, true)) {
+                releaseProbe();
+            }
+        }
+
+        private void releaseProbe() {
+            if (acquiredIn.state == State.HALF_OPEN) {
+                acquiredIn.probesLeft.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.historymind.history_service.resilience;
+
+import com.historymind.history_service.config.WebFluxConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsProcessor;
+import org.springframework.web.cors.reactive.DefaultCorsProcessor;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Applies {@link ClientRateLimiter} to the chat endpoints. Clients are keyed by a
+ * known API key when one is sent, otherwise by IP: the last {@code X-Forwarded-For}
+ * hop (the one our proxy appended) or the socket address. Rejections carry the
+ * API's CORS headers, since they are written before the CORS handler runs.
+ * <p>
+ * Every request costs one token here. The client key is left in the
+ * {@link #CLIENT_KEY_ATTRIBUTE} exchange attribute so handlers whose requests do more
+ * work, such as the batch endpoint, can charge the rest once they know how much.
+ * {@code X-Forwarded-For} is only trusted when {@code trust-forwarded-for} is set, which
+ * is only safe behind a proxy that appends the real client address.
+ */
+@Component
+@Slf4j
+public class ClientRateLimitFilter implements WebFilter, Ordered {
+
+    public static final String CLIENT_KEY_ATTRIBUTE = ClientRateLimitFilter.class.getName() + ".clientKey";
+
+    private static final byte[] BODY = "{\"error\":\"Too many requests\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final CorsConfiguration cors = WebFluxConfig.corsConfiguration();
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+    private final ClientRateLimiter rateLimiter;
+    private final String pathPrefix;
+    private final String apiKeyHeader;
+    private final Set<String> apiKeys;
+    private final boolean trustForwardedFor;
+
+    public ClientRateLimitFilter(
+            ClientRateLimiter rateLimiter,
+            @Value("${ai.rate-limit.path-prefix:/api/v1/chat}") String pathPrefix,
+            @Value("${ai.rate-limit.api-key-header:X-API-Key}") String apiKeyHeader,
+            @Value("${ai.rate-limit.api-keys:}") Set<String> apiKeys,
+            @Value("${ai.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor
+    ) {
+        this.rateLimiter = rateLimiter;
+        this.pathPrefix = pathPrefix;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeys = apiKeys;
+        this.trustForwardedFor = trustForwardedFor;
+    }
+
+    @Override
+    public int getOrder() {
+        // ahead of routing and the CORS handler, so rejected clients cost as little as
+        // possible; the rejection adds the CORS headers itself
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!rateLimiter.isEnabled()
+                || request.getMethod() == HttpMethod.OPTIONS
+                || !request.getPath().value().startsWith(pathPrefix)) {
+            return chain.filter(exchange);
+        }
+
+        String clientKey = clientKey(request);
+        ClientRateLimiter.Decision decision = rateLimiter.tryAcquire(clientKey);
+        if (decision.allowed()) {
+            exchange.getAttributes().put(CLIENT_KEY_ATTRIBUTE, clientKey);
+            return chain.filter(exchange);
+        }
+
+        long retryAfterSeconds = decision.retryAfterSeconds();
+        log.debug("⛔ Rate limited {} for {}s", clientKey, retryAfterSeconds);
+        ServerHttpResponse response = exchange.getResponse();
+        // sets the Access-Control-* headers for allowed origins; its own 403 for other
+        // origins is replaced below, the browser blocks those responses either way
+        corsProcessor.process(cors, exchange);
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer body = response.bufferFactory().wrap(BODY);
+        return response.writeWith(Mono.just(body));
+    }
+
+    String clientKey(ServerHttpRequest request) {
+        String apiKey = request.getHeaders().getFirst(apiKeyHeader);
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeaders().getFirst("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                return "ip:" + forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            }
+        }
+        InetSocketAddress remote = request.getRemoteAddress();
+        if (remote == null) {
+            return "ip:unknown";
+        }
+        return "ip:" + (remote.getAddress() != null ? remote.getAddress().getHostAddress() : remote.getHostString());
+    }
+}
@@ -0,0 +1,166 @@
+package com.historymind.history_service.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets, implemented as GCRA: each client is a single
+ * {@link AtomicLong} holding its theoretical arrival time, updated by CAS.
+ * Clients are spread over independent stripes so eviction sweeps one stripe at a
+ * time. A bucket whose arrival time has passed is full, so evicting it loses nothing.
+ */
+@Component
+public class ClientRateLimiter {
+
+    /** Outcome of {@link #tryAcquire}; {@code retryAfterNanos} is 0 when allowed. */
+    public record Decision(boolean allowed, long retryAfterNanos) {
+
+        static final Decision ALLOWED = new Decision(true, 0);
+
+        /** {@code retryAfterNanos} rounded up to whole seconds, at least 1, for {@code Retry-After}. */
+        public long retryAfterSeconds() {
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        }
+    }
+
+    private static final int STRIPES = 16;
+    private static final int SWEEP_EVERY = 1024;
+
+    private final boolean enabled;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final int burst;
+    private final int maxClientsPerStripe;
+    private final LongSupplier clock;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong decisions = new AtomicLong();
+
+    private final Counter allowed;
+    private final Counter rejected;
+    private final Counter untracked;
+
+    @Autowired
+    public ClientRateLimiter(
+            @Value("${ai.rate-limit.enabled:true}") boolean enabled,
+            @Value("${ai.rate-limit.requests-per-second:2}") double requestsPerSecond,
+            @Value("${ai.rate-limit.burst:20}") int burst,
+            @Value("${ai.rate-limit.max-clients:100000}") int maxClients,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, requestsPerSecond, burst, maxClients, meterRegistry, System::nanoTime);
+    }
+
+    ClientRateLimiter(boolean enabled, double requestsPerSecond, int burst, int maxClients,
+                      MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.emissionIntervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.burst = Math.max(1, burst);
+        this.burstToleranceNanos = emissionIntervalNanos * this.burst;
+        this.maxClientsPerStripe = Math.max(1, maxClients / STRIPES);
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+
+        this.allowed = decisionCounter(meterRegistry, "allowed");
+        this.rejected = decisionCounter(meterRegistry, "rejected");
+        this.untracked = decisionCounter(meterRegistry, "untracked");
+        Gauge.builder("http.ratelimit.clients", this, ClientRateLimiter::trackedClients)
+                .description("Clients currently holding a rate-limit bucket")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Decision tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens at once, or none. A request for more than the burst
+     * could never be allowed, so it is charged as a full burst instead.
+     */
+    public Decision tryAcquire(String clientKey, int permits) {
+        if (permits <= 0) {
+            return Decision.ALLOWED;
+        }
+        long cost = emissionIntervalNanos * Math.min(permits, burst);
+        long now = clock.getAsLong();
+        Stripe stripe = stripes[(clientKey.hashCode() & 0x7fffffff) % STRIPES];
+        if ((decisions.incrementAndGet() & (SWEEP_EVERY - 1)) == 0) {
+            stripe.evictIdle(now);
+        }
+
+        AtomicLong arrival = stripe.buckets.get(clientKey);
+        if (arrival == null) {
+            if (stripe.buckets.size() >= maxClientsPerStripe && stripe.evictIdle(now) == 0) {
+                // table full of active clients: fail open rather than punish a newcomer
+                untracked.increment();
+                return Decision.ALLOWED;
+            }
+            arrival = stripe.buckets.computeIfAbsent(clientKey, k -> new AtomicLong(now));
+        }
+
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + cost;
+            long excess = next - now - burstToleranceNanos;
+            if (excess > 0) {
+                rejected.increment();
+                return new Decision(false, excess);
+            }
+            if (arrival.compareAndSet(current, next)) {
+                allowed.increment();
+                return Decision.ALLOWED;
+            }
+        }
+    }
+
+    int trackedClients() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.buckets.size();
+        }
+        return total;
+    }
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String decision) {
+        return Counter.builder("http.ratelimit.decisions")
+                .description("Per-client rate limiter decisions")
+                .tag("decision", decision)
+                .register(meterRegistry);
+    }
+
+    private static final class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        int evictIdle(long now) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return 0;
+            }
+            try {
+                int before = buckets.size();
+                // a refilled bucket is indistinguishable from a new one
+                buckets.values().removeIf(arrival -> arrival.get() <= now);
+                return before - buckets.size();
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.historymind.history_service.resilience;
+
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Absolute point (in {@link System#nanoTime()} terms) after which the caller no
+ * longer wants an answer. Set by {@link DeadlineFilter} and read from the Reactor
+ * context wherever work could still be skipped.
+ */
+public record Deadline(long deadlineNanos) {
+
+    public static final String CONTEXT_KEY = Deadline.class.getName();
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static Optional<Deadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+}
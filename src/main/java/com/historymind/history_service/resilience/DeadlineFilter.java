@@ -0,0 +1,77 @@
+package com.historymind.history_service.resilience;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Puts a {@link Deadline} into the Reactor context of every chat request. Clients
+ * may send a relative timeout in {@code X-Request-Timeout-Ms}; it is capped at the
+ * route default, which applies when the header is missing or invalid.
+ */
+@Component
+public class DeadlineFilter implements WebFilter, Ordered {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final boolean enabled;
+    private final String pathPrefix;
+    private final Duration defaultTimeout;
+    private final String batchPath;
+    private final Duration batchTimeout;
+
+    public DeadlineFilter(
+            @Value("${ai.deadline.enabled:true}") boolean enabled,
+            @Value("${ai.deadline.path-prefix:/api/v1/chat}") String pathPrefix,
+            @Value("${ai.deadline.default-timeout-ms:25000}") long defaultTimeoutMs,
+            @Value("${ai.deadline.batch-path:/api/v1/chat/ask-batch}") String batchPath,
+            @Value("${ai.deadline.batch-timeout-ms:60000}") long batchTimeoutMs
+    ) {
+        this.enabled = enabled;
+        this.pathPrefix = pathPrefix;
+        this.defaultTimeout = Duration.ofMillis(defaultTimeoutMs);
+        this.batchPath = batchPath;
+        this.batchTimeout = Duration.ofMillis(batchTimeoutMs);
+    }
+
+    @Override
+    public int getOrder() {
+        // right after rate limiting, so the deadline clock starts before any real work
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().value();
+        if (!enabled || !path.startsWith(pathPrefix)) {
+            return chain.filter(exchange);
+        }
+        Duration timeout = timeoutFor(path, exchange.getRequest().getHeaders().getFirst(TIMEOUT_HEADER));
+        Deadline deadline = Deadline.after(timeout);
+        return chain.filter(exchange)
+                .contextWrite(context -> context.put(Deadline.CONTEXT_KEY, deadline));
+    }
+
+    Duration timeoutFor(String path, String requested) {
+        Duration routeDefault = path.startsWith(batchPath) ? batchTimeout : defaultTimeout;
+        if (requested == null) {
+            return routeDefault;
+        }
+        try {
+            long millis = Long.parseLong(requested.trim());
+            if (millis <= 0) {
+                return routeDefault;
+            }
+            Duration clientTimeout = Duration.ofMillis(millis);
+            return clientTimeout.compareTo(routeDefault) < 0 ? clientTimeout : routeDefault;
+        } catch (NumberFormatException e) {
+            return routeDefault;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.historymind.history_service.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Fires a second identical AI call when the first has not answered within the
+ * observed latency percentile; the first answer wins and the other is cancelled.
+ * Hedges draw from a token budget refilled by a fixed share of each request.
+ */
+@Component
+public class HedgingPolicy {
+
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 16;
+    private static final long TOKEN = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final long depositPerRequest;
+
+    private final AtomicLongArray samples;
+    private final AtomicLong sampleCursor = new AtomicLong();
+    private final AtomicLong tokens = new AtomicLong();
+    private volatile long thresholdNanos;
+
+    private final Counter requests;
+    private final Counter hedgesSent;
+    private final Counter hedgeWins;
+    private final Counter budgetExhausted;
+
+    public HedgingPolicy(
+            @Value("${ai.hedging.enabled:false}") boolean enabled,
+            @Value("${ai.hedging.percentile:0.95}") double percentile,
+            @Value("${ai.hedging.min-delay-ms:100}") long minDelayMs,
+            @Value("${ai.hedging.max-delay-ms:5000}") long maxDelayMs,
+            @Value("${ai.hedging.budget-percent:10}") double budgetPercent,
+            @Value("${ai.hedging.sample-size:256}") int sampleSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayNanos = Duration.ofMillis(minDelayMs).toNanos();
+        this.maxDelayNanos = Duration.ofMillis(maxDelayMs).toNanos();
+        this.depositPerRequest = Math.round(TOKEN * budgetPercent / 100.0);
+        this.samples = new AtomicLongArray(sampleSize);
+        this.thresholdNanos = maxDelayNanos;
+
+        this.requests = Counter.builder("chat.hedge.requests")
+                .description("AI calls eligible for hedging")
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("chat.hedge.sent")
+                .description("Hedged (duplicate) AI calls fired")
+                .register(meterRegistry);
+        this.hedgeWins = Counter.builder("chat.hedge.wins")
+                .description("Hedged AI calls that answered before the original")
+                .register(meterRegistry);
+        this.budgetExhausted = Counter.builder("chat.hedge.budget.exhausted")
+                .description("Hedges skipped because the hedge budget was spent")
+                .register(meterRegistry);
+        Gauge.builder("chat.hedge.threshold", this, p -> p.getThreshold().toMillis())
+                .description("Current hedge delay in milliseconds")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    public static HedgingPolicy disabled() {
+        return new HedgingPolicy(false, 0.95, 0, 0, 0, 1, new SimpleMeterRegistry());
+    }
+
+    public Duration getThreshold() {
+        return Duration.ofNanos(thresholdNanos);
+    }
+
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        return Mono.defer(() -> {
+            requests.increment();
+            deposit();
+            Mono<Attempt<T>> primary = timed(call, false);
+            Mono<Attempt<T>> hedged = Mono.delay(getThreshold())
+                    .flatMap(tick -> {
+                        if (!withdraw()) {
+                            budgetExhausted.increment();
+                            return Mono.never();
+                        }
+                        hedgesSent.increment();
+                        // a failed hedge must not fail the request; keep waiting for the original
+                        return timed(call, true).onErrorResume(e -> Mono.never());
+                    });
+            return Mono.firstWithSignal(primary, hedged)
+                    .map(attempt -> {
+                        if (attempt.hedge) {
+                            hedgeWins.increment();
+                        }
+                        return attempt.value;
+                    });
+        });
+    }
+
+    private <T> Mono<Attempt<T>> timed(Supplier<Mono<T>> call, boolean hedge) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(v -> recordLatency(System.nanoTime() - start))
+                    .map(v -> new Attempt<>(v, hedge));
+        });
+    }
+
+    void recordLatency(long nanos) {
+        long n = sampleCursor.getAndIncrement();
+        samples.set((int) (n % samples.length()), nanos);
+        if (n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+            recomputeThreshold(Math.min(n + 1, samples.length()));
+        }
+    }
+
+    private void recomputeThreshold(long count) {
+        long[] copy = new long[(int) count];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = samples.get(i);
+        }
+        Arrays.sort(copy);
+        long value = copy[(int) Math.min(copy.length - 1, Math.ceil(percentile * copy.length) - 1)];
+        thresholdNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, value));
+    }
+
+    private void deposit() {
+        tokens.accumulateAndGet(depositPerRequest, (current, add) -> Math.min(MAX_TOKENS, current + add));
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    private record Attempt<T>(T value, boolean hedge) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.historymind.history_service.resilience;
+
+import reactor.util.context.ContextView;
+
+import java.util.Optional;
+
+/**
+ * Deadline of an upstream call that several callers share: the latest of their
+ * {@link Deadline}s, or none once a caller without a deadline joins. The budget is read
+ * when a request is sent, so callers joining afterwards only extend later attempts
+ * (e.g. a hedge); each caller still times out on its own deadline.
+ */
+public final class SharedDeadline {
+
+    public static final String CONTEXT_KEY = SharedDeadline.class.getName();
+
+    private Deadline latest;
+    private boolean unbounded;
+
+    public static Optional<SharedDeadline> from(ContextView context) {
+        return context.getOrEmpty(CONTEXT_KEY);
+    }
+
+    /** Adds a caller; {@code deadline} is null for callers without one. */
+    public synchronized void join(Deadline deadline) {
+        if (deadline == null) {
+            unbounded = true;
+        } else if (latest == null || deadline.deadlineNanos() - latest.deadlineNanos() > 0) {
+            latest = deadline;
+        }
+    }
+
+    /** The longest budget among the callers so far; empty if any of them has no deadline. */
+    public synchronized Optional<Deadline> latest() {
+        return unbounded ? Optional.empty() : Optional.ofNullable(latest);
+    }
+}
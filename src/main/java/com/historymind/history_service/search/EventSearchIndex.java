@@ -0,0 +1,172 @@
+package com.historymind.history_service.search;
+
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.model.HistoryRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local BM25 full-text search over the title, event and story of every event in the
+ * {@link EventIndex}, so a question about retained events needs no AI round trip.
+ * <p>
+ * Text is split into syllables by {@link VietnameseTokenizer}; each syllable is indexed
+ * as written and in a diacritic-free variant, so "tran hung dao" finds "Trần Hưng Đạo".
+ * Events are spread over {@code shards} shards by id and indexed incrementally as the
+ * event index accepts them. A query first sums document frequencies over all shards,
+ * then scores the shards in parallel and merges their top hits.
+ */
+@Component
+public class EventSearchIndex {
+
+    /** An event and its BM25 score; hits are ranked by score, then id. */
+    public record Hit(HistoryRecord record, double score) {
+
+        static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+                .thenComparing(hit -> hit.record().getId());
+    }
+
+    /** How query syllables are matched against the two indexed variants. */
+    public enum Folding {
+        /** Accent-free syllables match any accents; accented ones must match exactly. */
+        AUTO,
+        /** Every syllable matches regardless of accents. */
+        ALWAYS,
+        /** Every syllable must match exactly as written. */
+        NEVER
+    }
+
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    private static final int MAX_QUERY_TERMS = 32;
+
+    private final SearchShard[] shards;
+    private final Scheduler scheduler;
+    private final Timer queryTimer;
+
+    @Autowired
+    public EventSearchIndex(
+            @Value("${ai.search.enabled:true}") boolean enabled,
+            @Value("${ai.search.shards:0}") int shards,
+            EventIndex eventIndex,
+            MeterRegistry meterRegistry
+    ) {
+        this(shards > 0 ? shards : Runtime.getRuntime().availableProcessors(), Schedulers.parallel(), meterRegistry);
+        if (enabled) {
+            eventIndex.addIngestListener(this::index);
+        }
+    }
+
+    EventSearchIndex(int shards, Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.shards = new SearchShard[Math.max(1, shards)];
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new SearchShard();
+        }
+        this.scheduler = scheduler;
+        this.queryTimer = Timer.builder("events.search.query")
+                .description("Time to answer a local full-text search")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("events.search.docs", this, EventSearchIndex::size)
+                .description("Events in the full-text index")
+                .register(meterRegistry);
+        Gauge.builder("events.search.postings.bytes", this, EventSearchIndex::postingBytes)
+                .description("Compressed postings held by the full-text index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public void index(HistoryRecord record) {
+        if (record != null && record.getId() != null) {
+            shards[Math.floorMod(record.getId().hashCode(), shards.length)].add(record);
+        }
+    }
+
+    public int size() {
+        int total = 0;
+        for (SearchShard shard : shards) {
+            total += shard.size();
+        }
+        return total;
+    }
+
+    /** Best {@code limit} events for {@code query}, highest score first; empty if nothing matches. */
+    public Mono<List<Hit>> search(String query, Folding folding, int limit) {
+        List<String> terms = terms(query, folding);
+        if (terms.isEmpty() || limit <= 0) {
+            return Mono.just(List.of());
+        }
+        long start = System.nanoTime();
+
+        long[] stats = new long[2 + terms.size()];
+        for (SearchShard shard : shards) {
+            shard.collectStats(terms, stats);
+        }
+        long docs = stats[0];
+        if (docs == 0) {
+            return Mono.just(List.of());
+        }
+        double averageLength = Math.max(1.0, (double) stats[1] / docs);
+        double[] idf = new double[terms.size()];
+        for (int t = 0; t < idf.length; t++) {
+            long df = Math.min(stats[2 + t], docs);
+            idf[t] = Math.log(1 + (docs - df + 0.5) / (df + 0.5));
+        }
+
+        Mono<List<Hit>> hits = shards.length == 1
+                ? Mono.fromCallable(() -> shards[0].search(terms, idf, averageLength, K1, B, limit))
+                : Flux.fromArray(shards)
+                    .parallel(shards.length)
+                    .runOn(scheduler)
+                    .map(shard -> shard.search(terms, idf, averageLength, K1, B, limit))
+                    .sequential()
+                    .collectList()
+                    .map(perShard -> merge(perShard, limit));
+        return hits.doFinally(signal -> queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    long postingBytes() {
+        long total = 0;
+        for (SearchShard shard : shards) {
+            total += shard.postingBytes();
+        }
+        return total;
+    }
+
+    static List<String> terms(String query, Folding folding) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (String token : VietnameseTokenizer.tokenize(query)) {
+            if (terms.size() == MAX_QUERY_TERMS) {
+                break;
+            }
+            boolean fold = switch (folding) {
+                case ALWAYS -> true;
+                case NEVER -> false;
+                case AUTO -> VietnameseTokenizer.isFolded(token);
+            };
+            terms.add(fold ? SearchShard.FOLDED_PREFIX + VietnameseTokenizer.fold(token) : token);
+        }
+        return new ArrayList<>(terms);
+    }
+
+    private static List<Hit> merge(List<List<Hit>> perShard, int limit) {
+        List<Hit> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(Hit.RANKING);
+        return merged.size() > limit ? List.copyOf(merged.subList(0, limit)) : merged;
+    }
+}
@@ -0,0 +1,73 @@
+package com.historymind.history_service.search;
+
+import java.util.Arrays;
+
+/**
+ * Append-only postings for one term: {@code (doc - previousDoc, termFrequency)} pairs
+ * as unsigned LEB128 varints. Documents are appended in increasing id order, so gaps
+ * and frequencies are small and most postings take two bytes.
+ */
+final class PostingList {
+
+    interface Visitor {
+        void accept(int doc, int termFrequency);
+    }
+
+    private byte[] bytes = new byte[8];
+    private int size;
+    private int lastDoc = -1;
+    private int docFrequency;
+
+    void add(int doc, int termFrequency) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException("Postings must be appended in doc order");
+        }
+        writeVarInt(doc - lastDoc);
+        writeVarInt(termFrequency);
+        lastDoc = doc;
+        docFrequency++;
+    }
+
+    int docFrequency() {
+        return docFrequency;
+    }
+
+    int sizeInBytes() {
+        return size;
+    }
+
+    void forEach(Visitor visitor) {
+        int position = 0;
+        int doc = -1;
+        while (position < size) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            int termFrequency = 0;
+            shift = 0;
+            do {
+                b = bytes[position++];
+                termFrequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += gap;
+            visitor.accept(doc, termFrequency);
+        }
+    }
+
+    private void writeVarInt(int value) {
+        if (bytes.length - size < 5) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + 5));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[size++] = (byte) value;
+    }
+}
@@ -0,0 +1,252 @@
+package com.historymind.history_service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Predicate;
+
+/**
+ * Immutable prefix dictionary for typeahead. Entries are sorted by their folded key,
+ * so all entries under a prefix form one contiguous range, found by binary search.
+ * <p>
+ * Keys are front-coded in blocks of {@value #BLOCK_SIZE} within a single {@code char[]}:
+ * each block starts with a full key and every following key stores only the length
+ * it shares with its predecessor and the rest. The most frequent entries of a range are
+ * taken from a max segment tree over the counts, so a lookup costs
+ * {@code O((log n) * limit)} regardless of how many entries share the prefix.
+ */
+final class PrefixDictionary {
+
+    /** A suggestion candidate: display text, its kind, and how many events mention it. */
+    record Entry(String key, String text, String kind, int count) {
+    }
+
+    static final PrefixDictionary EMPTY = build(List.of());
+
+    static final int MAX_KEY_CHARS = 100;
+    private static final int BLOCK_SIZE = 16;
+
+    private final char[] keys;
+    private final int[] blocks;
+    private final String[] texts;
+    private final String[] kinds;
+    private final int[] counts;
+    private final int[] maxTree;
+    private final int size;
+
+    private PrefixDictionary(char[] keys, int[] blocks, String[] texts, String[] kinds, int[] counts) {
+        this.keys = keys;
+        this.blocks = blocks;
+        this.texts = texts;
+        this.kinds = kinds;
+        this.counts = counts;
+        this.size = counts.length;
+        this.maxTree = new int[2 * Math.max(1, size)];
+        for (int i = 0; i < size; i++) {
+            maxTree[size + i] = i;
+        }
+        for (int node = size - 1; node > 0; node--) {
+            maxTree[node] = better(maxTree[2 * node], maxTree[2 * node + 1]);
+        }
+    }
+
+    static PrefixDictionary build(List<Entry> source) {
+        List<Entry> entries = new ArrayList<>(source.size());
+        for (Entry entry : source) {
+            if (entry.key() != null && !entry.key().isEmpty()) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparing(Entry::key).thenComparing(Entry::text).thenComparing(Entry::kind));
+
+        StringBuilder keys = new StringBuilder();
+        int[] blocks = new int[(entries.size() + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        String[] texts = new String[entries.size()];
+        String[] kinds = new String[entries.size()];
+        int[] counts = new int[entries.size()];
+        String previous = "";
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            String key = entry.key();
+            int shared = 0;
+            if (i % BLOCK_SIZE == 0) {
+                blocks[i / BLOCK_SIZE] = keys.length();
+            } else {
+                int max = Math.min(previous.length(), key.length());
+                while (shared < max && previous.charAt(shared) == key.charAt(shared)) {
+                    shared++;
+                }
+                keys.append((char) shared);
+            }
+            keys.append((char) (key.length() - shared)).append(key, shared, key.length());
+            texts[i] = entry.text();
+            kinds[i] = entry.kind();
+            counts[i] = entry.count();
+            previous = key;
+        }
+        char[] packed = new char[keys.length()];
+        keys.getChars(0, keys.length(), packed, 0);
+        return new PrefixDictionary(packed, blocks, texts, kinds, counts);
+    }
+
+    /** Lower-cased, NFC, single-spaced form of {@code text}; diacritics kept. */
+    static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC)
+                .toLowerCase(Locale.ROOT)
+                .strip()
+                .replaceAll("\\s+", " ");
+        return normalized.length() > MAX_KEY_CHARS ? normalized.substring(0, MAX_KEY_CHARS) : normalized;
+    }
+
+    /** The diacritic-free lookup key of {@code text}. */
+    static String key(String text) {
+        String normalized = normalize(text);
+        return normalized == null ? null : VietnameseTokenizer.fold(normalized);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long footprintBytes() {
+        // the display strings are shared with the event index's SymbolTable
+        return 2L * keys.length + 4L * blocks.length + 8L * texts.length + 4L * counts.length
+                + 4L * maxTree.length;
+    }
+
+    /**
+     * Up to {@code limit} entries whose key starts with {@code keyPrefix} and that pass
+     * {@code filter}, most frequent first. At most {@code maxExamined} candidates are
+     * tested against the filter.
+     */
+    List<Entry> top(String keyPrefix, Predicate<Entry> filter, int limit, int maxExamined) {
+        if (keyPrefix == null || keyPrefix.isEmpty() || size == 0 || limit <= 0) {
+            return List.of();
+        }
+        int from = lowerBound(keyPrefix);
+        int to = lowerBound(successor(keyPrefix));
+        if (from >= to) {
+            return List.of();
+        }
+
+        // ranges ordered by their best entry; popping one emits it and splits the rest
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compare(a[2], b[2]));
+        ranges.add(new int[] {from, to, argMax(from, to)});
+        List<Entry> result = new ArrayList<>(limit);
+        int examined = 0;
+        while (!ranges.isEmpty() && result.size() < limit && examined++ < maxExamined) {
+            int[] range = ranges.poll();
+            int best = range[2];
+            Entry entry = new Entry(keyAt(best), texts[best], kinds[best], counts[best]);
+            if (filter.test(entry)) {
+                result.add(entry);
+            }
+            if (range[0] < best) {
+                ranges.add(new int[] {range[0], best, argMax(range[0], best)});
+            }
+            if (best + 1 < range[1]) {
+                ranges.add(new int[] {best + 1, range[1], argMax(best + 1, range[1])});
+            }
+        }
+        return result;
+    }
+
+    /** Index of the best entry in {@code [from, to)}: highest count, then lowest index. */
+    private int argMax(int from, int to) {
+        int best = -1;
+        for (int lo = from + size, hi = to + size; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = best < 0 ? maxTree[lo] : better(best, maxTree[lo]);
+                lo++;
+            }
+            if ((hi & 1) == 1) {
+                hi--;
+                best = best < 0 ? maxTree[hi] : better(best, maxTree[hi]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        return compare(a, b) <= 0 ? a : b;
+    }
+
+    private int compare(int a, int b) {
+        int byCount = Integer.compare(counts[b], counts[a]);
+        return byCount != 0 ? byCount : Integer.compare(a, b);
+    }
+
+    /** First index whose key is {@code >= target}. */
+    private int lowerBound(String target) {
+        if (target == null) {
+            return size;
+        }
+        // last block whose head key is < target, then a linear scan inside it
+        int lo = 0, hi = blocks.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (headKey(mid).compareTo(target) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == 0) {
+            return 0;
+        }
+        int block = lo - 1;
+        int index = block * BLOCK_SIZE;
+        int end = Math.min(size, index + BLOCK_SIZE);
+        int position = blocks[block];
+        StringBuilder key = new StringBuilder();
+        for (; index < end; index++) {
+            position = decodeNext(position, index % BLOCK_SIZE == 0, key);
+            if (key.toString().compareTo(target) >= 0) {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    private String headKey(int block) {
+        StringBuilder key = new StringBuilder();
+        decodeNext(blocks[block], true, key);
+        return key.toString();
+    }
+
+    private String keyAt(int index) {
+        int block = index / BLOCK_SIZE;
+        int position = blocks[block];
+        StringBuilder key = new StringBuilder();
+        for (int i = block * BLOCK_SIZE; i <= index; i++) {
+            position = decodeNext(position, i % BLOCK_SIZE == 0, key);
+        }
+        return key.toString();
+    }
+
+    private int decodeNext(int position, boolean head, StringBuilder key) {
+        int shared = head ? 0 : keys[position++];
+        int suffix = keys[position++];
+        key.setLength(shared);
+        key.append(keys, position, suffix);
+        return position + suffix;
+    }
+
+    /** Smallest string greater than every string starting with {@code prefix}, or null if none. */
+    private static String successor(String prefix) {
+        char[] chars = prefix.toCharArray();
+        for (int i = chars.length - 1; i >= 0; i--) {
+            if (chars[i] != Character.MAX_VALUE) {
+                chars[i]++;
+                return new String(chars, 0, i + 1);
+            }
+        }
+        return null;
+    }
+}
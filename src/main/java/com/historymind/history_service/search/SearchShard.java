@@ -0,0 +1,197 @@
+package com.historymind.history_service.search;
+
+import com.historymind.history_service.model.HistoryRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One partition of {@link EventSearchIndex}: dense doc ids, per-term {@link PostingList}s
+ * and weighted document lengths. A changed event is appended as a new document and
+ * its old one is marked deleted; the shard rebuilds itself once deletions outnumber
+ * live documents.
+ */
+final class SearchShard {
+
+    static final String FOLDED_PREFIX = "~";
+
+    private static final int TITLE_WEIGHT = 2;
+    private static final int MIN_DELETED_FOR_REBUILD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private HistoryRecord[] docs = new HistoryRecord[64];
+    private int[] lengths = new int[64];
+    private int docCount;
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private long liveLength;
+    private final Map<String, Integer> docById = new HashMap<>();
+    private Map<String, PostingList> postings = new HashMap<>();
+
+    void add(HistoryRecord record) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = docById.get(record.getId());
+            if (previous != null) {
+                if (docs[previous].equals(record)) {
+                    return;
+                }
+                deleted.set(previous);
+                deletedCount++;
+                liveLength -= lengths[previous];
+            }
+            append(record);
+            if (deletedCount >= MIN_DELETED_FOR_REBUILD && deletedCount > liveDocs()) {
+                rebuild();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds this shard's live document count, live length and each term's document
+     * frequency to {@code into} ({@code [docs, length, df(term0), df(term1), ...]}).
+     * Document frequencies include deleted documents until the next rebuild.
+     */
+    void collectStats(List<String> terms, long[] into) {
+        lock.readLock().lock();
+        try {
+            into[0] += liveDocs();
+            into[1] += liveLength;
+            for (int t = 0; t < terms.size(); t++) {
+                PostingList list = postings.get(terms.get(t));
+                into[2 + t] += list == null ? 0 : list.docFrequency();
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long postingBytes() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (PostingList list : postings.values()) {
+                total += list.sizeInBytes();
+            }
+            return total;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top {@code limit} live documents by BM25 over {@code terms}, with the collection
+     * statistics ({@code idf}, {@code averageLength}) supplied by the caller so scores
+     * are comparable across shards.
+     */
+    List<EventSearchIndex.Hit> search(List<String> terms, double[] idf, double averageLength,
+                                      double k1, double b, int limit) {
+        lock.readLock().lock();
+        try {
+            double[] scores = new double[docCount];
+            double[] norms = null;
+            for (int t = 0; t < terms.size(); t++) {
+                PostingList list = postings.get(terms.get(t));
+                if (list == null) {
+                    continue;
+                }
+                if (norms == null) {
+                    // length normalization depends only on the document, not the term
+                    norms = new double[docCount];
+                    for (int doc = 0; doc < docCount; doc++) {
+                        norms[doc] = k1 * (1 - b + b * lengths[doc] / averageLength);
+                    }
+                }
+                double[] docNorms = norms;
+                double weight = idf[t] * (k1 + 1);
+                list.forEach((doc, tf) -> scores[doc] += weight * tf / (tf + docNorms[doc]));
+            }
+
+            PriorityQueue<EventSearchIndex.Hit> top =
+                    new PriorityQueue<>(limit + 1, EventSearchIndex.Hit.RANKING.reversed());
+            for (int doc = 0; doc < docCount; doc++) {
+                double score = scores[doc];
+                if (score <= 0 || (top.size() == limit && score < top.peek().score()) || deleted.get(doc)) {
+                    continue;
+                }
+                top.add(new EventSearchIndex.Hit(docs[doc], score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<EventSearchIndex.Hit> hits = new ArrayList<>(top);
+            hits.sort(EventSearchIndex.Hit.RANKING);
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int liveDocs() {
+        return docCount - deletedCount;
+    }
+
+    private void append(HistoryRecord record) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        int length = count(frequencies, record.getTitle(), TITLE_WEIGHT)
+                + count(frequencies, record.getEvent(), TITLE_WEIGHT)
+                + count(frequencies, record.getStory(), 1);
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+            lengths = Arrays.copyOf(lengths, docCount * 2);
+        }
+        int doc = docCount++;
+        docs[doc] = record;
+        lengths[doc] = length;
+        liveLength += length;
+        docById.put(record.getId(), doc);
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new PostingList()).add(doc, tf[0]));
+    }
+
+    private static int count(Map<String, int[]> frequencies, String text, int weight) {
+        List<String> tokens = VietnameseTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.computeIfAbsent(token, k -> new int[1])[0] += weight;
+            // the diacritic-free variant lives in its own term space
+            frequencies.computeIfAbsent(FOLDED_PREFIX + VietnameseTokenizer.fold(token), k -> new int[1])[0] += weight;
+        }
+        return tokens.size() * weight;
+    }
+
+    private void rebuild() {
+        Collection<HistoryRecord> live = new ArrayList<>(liveDocs());
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!deleted.get(doc)) {
+                live.add(docs[doc]);
+            }
+        }
+        docs = new HistoryRecord[Math.max(64, live.size())];
+        lengths = new int[docs.length];
+        docCount = 0;
+        deleted.clear();
+        deletedCount = 0;
+        liveLength = 0;
+        docById.clear();
+        postings = new HashMap<>();
+        live.forEach(this::append);
+    }
+}
@@ -0,0 +1,170 @@
+package com.historymind.history_service.search;
+
+import com.historymind.history_service.dto.Suggestion;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.model.HistoryRecord;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+/**
+ * Typeahead over the persons, places and keywords of the {@link EventIndex}, ranked by
+ * the number of events that mention them.
+ * <p>
+ * Lookups read an immutable {@link PrefixDictionary} and never wait. When new events
+ * arrive, a background thread rebuilds the dictionary at most every
+ * {@code rebuild-interval-ms} and swaps it in, so suggestions lag new events by up to
+ * that interval. Matching ignores diacritics unless the prefix has some, in which case
+ * suggestions must start with the prefix as typed.
+ */
+@Component
+@Slf4j
+public class SuggestIndex {
+
+    public static final String PERSON = "person";
+    public static final String PLACE = "place";
+    public static final String KEYWORD = "keyword";
+
+    // bounds the work a diacritic-filtered lookup may do on a very common prefix
+    private static final int MAX_EXAMINED = 1000;
+
+    private final boolean enabled;
+    private final EventIndex eventIndex;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final ScheduledExecutorService rebuilder;
+    private final Timer rebuildTimer;
+    private final Timer lookupTimer;
+
+    private volatile PrefixDictionary dictionary = PrefixDictionary.EMPTY;
+
+    @Autowired
+    public SuggestIndex(
+            @Value("${ai.suggest.enabled:true}") boolean enabled,
+            @Value("${ai.suggest.rebuild-interval-ms:5000}") long rebuildIntervalMs,
+            EventIndex eventIndex,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, Duration.ofMillis(rebuildIntervalMs), eventIndex, meterRegistry);
+    }
+
+    SuggestIndex(boolean enabled, Duration rebuildInterval, EventIndex eventIndex, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.eventIndex = eventIndex;
+        this.rebuildTimer = Timer.builder("suggest.rebuild")
+                .description("Time to rebuild the typeahead dictionary")
+                .register(meterRegistry);
+        this.lookupTimer = Timer.builder("suggest.lookup")
+                .description("Time to answer a typeahead lookup")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("suggest.entries", this, index -> index.dictionary.size())
+                .description("Entries in the typeahead dictionary")
+                .register(meterRegistry);
+        Gauge.builder("suggest.bytes", this, index -> index.dictionary.footprintBytes())
+                .description("Approximate size of the typeahead dictionary, excluding shared strings")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        if (!enabled) {
+            this.rebuilder = null;
+            return;
+        }
+
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        eventIndex.addIngestListener(record -> dirty.set(true));
+        long intervalMs = Math.max(1, rebuildInterval.toMillis());
+        rebuilder.scheduleWithFixedDelay(this::rebuildIfDirty, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Up to {@code limit} suggestions completing {@code prefix}, most mentioned first. */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String normalized = PrefixDictionary.normalize(prefix);
+        if (!enabled || normalized == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        String key = VietnameseTokenizer.fold(normalized);
+        Predicate<PrefixDictionary.Entry> filter = key.equals(normalized)
+                ? entry -> true
+                : entry -> PrefixDictionary.normalize(entry.text()).startsWith(normalized);
+        List<PrefixDictionary.Entry> entries = dictionary.top(key, filter, limit, MAX_EXAMINED);
+
+        List<Suggestion> suggestions = new ArrayList<>(entries.size());
+        for (PrefixDictionary.Entry entry : entries) {
+            suggestions.add(new Suggestion(entry.text(), entry.kind(), entry.count()));
+        }
+        lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    /** Builds a fresh dictionary from the event index and swaps it in. */
+    void rebuild() {
+        long start = System.nanoTime();
+        Map<String, Map<String, int[]>> counts = Map.of(
+                PERSON, new HashMap<>(), PLACE, new HashMap<>(), KEYWORD, new HashMap<>());
+        Set<String> seen = new HashSet<>();
+        eventIndex.forEachRecord(record -> {
+            count(counts.get(PERSON), record.getPersons(), seen);
+            count(counts.get(PLACE), record.getPlaces(), seen);
+            count(counts.get(KEYWORD), record.getKeywords(), seen);
+        });
+
+        List<PrefixDictionary.Entry> entries = new ArrayList<>();
+        counts.forEach((kind, byText) -> byText.forEach((text, count) ->
+                entries.add(new PrefixDictionary.Entry(PrefixDictionary.key(text), text, kind, count[0]))));
+        dictionary = PrefixDictionary.build(entries);
+        rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("🔤 Rebuilt typeahead dictionary with {} entries", entries.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    private void rebuildIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // keep serving the previous dictionary and try again on the next tick
+            dirty.set(true);
+            log.warn("⚠️ Failed to rebuild typeahead dictionary", e);
+        }
+    }
+
+    /** Counts each distinct name of one event once. */
+    private static void count(Map<String, int[]> byText, List<String> names, Set<String> seen) {
+        seen.clear();
+        for (String name : names) {
+            if (seen.add(name)) {
+                byText.computeIfAbsent(name, k -> new int[1])[0]++;
+            }
+        }
+    }
+}
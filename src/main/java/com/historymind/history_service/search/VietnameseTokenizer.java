@@ -0,0 +1,56 @@
+package com.historymind.history_service.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Splits Vietnamese text into syllables: NFC, lower-cased, cut at anything that is
+ * not a letter or digit. Vietnamese words are space-separated syllables, so a
+ * multi-syllable name matches as the set of its syllables.
+ * <p>
+ * {@link #fold} gives the diacritic-free form ("Trần" → "tran", "Đạo" → "dao") used
+ * for queries typed without accents.
+ */
+public final class VietnameseTokenizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_TOKEN_LENGTH = 32;
+
+    private VietnameseTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TOKEN_LENGTH) {
+                    tokens.add(normalized.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /** Strips tone and vowel marks; returns the token itself when it has none. */
+    public static String fold(String token) {
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(token, Normalizer.Form.NFD)).replaceAll("");
+        stripped = stripped.replace('đ', 'd');
+        return stripped.equals(token) ? token : stripped;
+    }
+
+    public static boolean isFolded(String token) {
+        return fold(token).equals(token);
+    }
+}
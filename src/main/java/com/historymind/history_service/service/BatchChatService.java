@@ -0,0 +1,68 @@
+package com.historymind.history_service.service;
+
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.dto.BatchChatResult;
+import com.historymind.history_service.dto.ChatRequest;
+import com.historymind.history_service.dto.ChatResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class BatchChatService {
+
+    private final ChatService chatService;
+    private final int maxConcurrency;
+    private final int maxBatchSize;
+
+    public BatchChatService(
+            ChatService chatService,
+            @Value("${ai.batch.max-concurrency:4}") int maxConcurrency,
+            @Value("${ai.batch.max-size:20}") int maxBatchSize
+    ) {
+        this.chatService = chatService;
+        this.maxConcurrency = maxConcurrency;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Answers every request, emitting results in completion order. Duplicate
+     * normalized queries share one call and failures are reported per item.
+     */
+    public Flux<BatchChatResult> processBatch(List<ChatRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Batch must not be empty"));
+        }
+        if (requests.size() > maxBatchSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch size " + requests.size() + " exceeds limit of " + maxBatchSize));
+        }
+
+        log.info("➡️ Processing batch of {} queries", requests.size());
+        Map<String, Mono<ChatResponse>> calls = new ConcurrentHashMap<>();
+        return Flux.range(0, requests.size())
+                .flatMap(index -> answer(index, requests.get(index), calls), maxConcurrency);
+    }
+
+    private Mono<BatchChatResult> answer(int index, ChatRequest request, Map<String, Mono<ChatResponse>> calls) {
+        String query = request == null ? null : request.getQuery();
+        String key = QueryNormalizer.normalize(query);
+        Mono<ChatResponse> call = key == null
+                ? chatService.processChat(query)
+                : calls.computeIfAbsent(key, k -> chatService.processChat(query).cache());
+
+        return call
+                .map(response -> BatchChatResult.success(index, query, response))
+                .defaultIfEmpty(BatchChatResult.failure(index, query, "Empty response from AI service"))
+                .onErrorResume(e -> Mono.just(BatchChatResult.failure(index, query, e.getMessage())));
+    }
+}
@@ -0,0 +1,12 @@
+package com.historymind.history_service.service;
+
+import com.historymind.history_service.dto.ChatResponse;
+
+/**
+ * Notified by {@link ChatService} for every answer freshly fetched from the AI service.
+ * Implementations run on the response path and must not block.
+ */
+public interface ChatResponseListener {
+
+    void onResponse(String query, ChatResponse response);
+}
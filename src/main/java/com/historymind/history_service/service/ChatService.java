@@ -1,27 +1,228 @@
 package com.historymind.history_service.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.cache.QueryNormalizer;
+import com.historymind.history_service.cache.ResponseCache;
+import com.historymind.history_service.cache.SingleFlight;
+import com.historymind.history_service.codec.ChatResponseStreamDecoder;
+import com.historymind.history_service.codec.NoDataKeyRewriter;
 import com.historymind.history_service.dto.ChatRequest;
 import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.metrics.ChatMetrics;
+import com.historymind.history_service.resilience.AdaptiveConcurrencyLimiter;
+import com.historymind.history_service.resilience.CircuitBreaker;
+import com.historymind.history_service.resilience.Deadline;
+import com.historymind.history_service.resilience.DeadlineFilter;
+import com.historymind.history_service.resilience.HedgingPolicy;
+import com.historymind.history_service.resilience.SharedDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @Slf4j
 public class ChatService {
 
+    private static final String TIMING_ATTRIBUTE = ChatService.class.getName() + ".timing";
+
     private final WebClient webClient;
+    private final ResponseCache responseCache;
+    private final ChatResponseStreamDecoder streamDecoder;
+    private final List<ChatResponseListener> listeners;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final HedgingPolicy hedgingPolicy;
+    private final SingleFlight<String, ChatResponse> singleFlight;
+    private final ChatMetrics chatMetrics;
 
     public ChatService(WebClient aiWebClient) {
-        this.webClient = aiWebClient;
+        this(aiWebClient, ResponseCache.disabled(), new ChatResponseStreamDecoder(new ObjectMapper()),
+                List.of(), AdaptiveConcurrencyLimiter.unlimited(), CircuitBreaker.disabled(),
+                HedgingPolicy.disabled(), new SimpleMeterRegistry());
+    }
+
+    @Autowired
+    public ChatService(WebClient aiWebClient, ResponseCache responseCache,
+                       ChatResponseStreamDecoder streamDecoder, List<ChatResponseListener> listeners,
+                       AdaptiveConcurrencyLimiter concurrencyLimiter, CircuitBreaker circuitBreaker,
+                       HedgingPolicy hedgingPolicy, MeterRegistry meterRegistry) {
+        this.webClient = aiWebClient.mutate()
+                .filter(this::enforceDeadline)
+                .filter(this::timeToFirstByte)
+                .build();
+        this.responseCache = responseCache;
+        this.streamDecoder = streamDecoder;
+        this.listeners = listeners;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.hedgingPolicy = hedgingPolicy;
+        this.singleFlight = new SingleFlight<>("chat", meterRegistry);
+        this.chatMetrics = new ChatMetrics(meterRegistry);
     }
 
     public Mono<ChatResponse> processChat(String query) {
+        String cacheKey = QueryNormalizer.normalize(query);
+        ChatResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            log.info("⚡ Serving cached answer for query: {}", query);
+            return Mono.just(cached);
+        }
+
+        return stored(cacheKey, query).switchIfEmpty(Mono.defer(() ->
+                withinDeadline(shared(cacheKey, query, () -> callAiService(query)))));
+    }
+
+    /**
+     * Background variant of {@link #processChat} for speculative calls. It takes no
+     * concurrency-limiter permit, is never hedged and is not recorded by the circuit
+     * breaker, so it cannot crowd out or trip protection for user calls. Completes
+     * empty without calling upstream while the breaker is not closed. Foreground
+     * callers asking the same question join the call in flight.
+     */
+    public Mono<ChatResponse> prefetchChat(String query) {
+        String cacheKey = QueryNormalizer.normalize(query);
+        ChatResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return stored(cacheKey, query).switchIfEmpty(Mono.defer(() -> {
+            if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+                return Mono.empty();
+            }
+            return shared(cacheKey, query, () -> {
+                log.debug("➡️ Prefetching from AI service: {}", query);
+                return timedBody(query);
+            });
+        }));
+    }
+
+    /** Answers persisted before a restart; the disk read happens off the calling thread. */
+    private Mono<ChatResponse> stored(String cacheKey, String query) {
+        return responseCache.loadStored(cacheKey)
+                .doOnNext(response -> log.info("💾 Serving stored answer for query: {}", query));
+    }
+
+    private Mono<ChatResponse> shared(String cacheKey, String query, Supplier<Mono<ChatResponse>> call) {
+        return Mono.deferContextual(caller -> singleFlight.execute(cacheKey, SharedDeadline::new,
+                deadlines -> deadlines.join(Deadline.from(caller).orElse(null)),
+                deadlines -> call.get()
+                        .doOnNext(response -> {
+                            responseCache.put(cacheKey, response);
+                            notifyListeners(query, response);
+                        })
+                        // the call is shared with whoever joins later, so it must not be bound by
+                        // the deadline of the caller that happened to start it; upstream is told
+                        // the longest budget among the callers instead
+                        .contextWrite(context -> context.delete(Deadline.CONTEXT_KEY)
+                                .put(SharedDeadline.CONTEXT_KEY, deadlines))));
+    }
+
+    public Mono<ChatResponse> cachedChat(String query) {
+        String cacheKey = QueryNormalizer.normalize(query);
+        ChatResponse cached = responseCache.get(cacheKey);
+        return cached != null ? Mono.just(cached) : stored(cacheKey, query);
+    }
+
+    /**
+     * Forwards the AI service's JSON body as raw buffers, only renaming {@code no_data}.
+     * Nothing is decoded, so the answer is neither cached nor passed to listeners;
+     * use {@link #processChat} when the response needs to be inspected.
+     */
+    public Flux<DataBuffer> passthroughChat(String query) {
+        log.info("➡️ Passing query through to AI service: {}", query);
+        Flux<DataBuffer> body = retrieve(query).bodyToFlux(DataBuffer.class);
+        return NoDataKeyRewriter.rewrite(beforeDeadline(circuitBreaker.protect(concurrencyLimiter.limit(body))))
+                .doOnError(e -> log.error("❌ Error passing through AI response", e));
+    }
+
+    public Flux<ChatStreamEvent> streamChat(String query) {
+        String cacheKey = QueryNormalizer.normalize(query);
+        ChatResponse cached = responseCache.get(cacheKey);
+        if (cached != null) {
+            log.info("⚡ Streaming cached answer for query: {}", query);
+            return toStreamEvents(cached);
+        }
+
+        return stored(cacheKey, query)
+                .flatMapMany(ChatService::toStreamEvents)
+                .switchIfEmpty(Flux.defer(() -> streamFromAiService(query)));
+    }
+
+    private Flux<ChatStreamEvent> streamFromAiService(String query) {
+        log.info("➡️ Streaming query from AI service: {}", query);
+        Flux<DataBuffer> body = retrieve(query).bodyToFlux(DataBuffer.class);
+        return streamDecoder.decode(beforeDeadline(circuitBreaker.protect(concurrencyLimiter.limit(body))))
+                .switchIfEmpty(Flux.just(ChatStreamEvent.done(true)))
+                .doOnComplete(() -> log.info("✅ AI response streamed"))
+                .doOnError(e -> log.error("❌ Error streaming from AI service", e));
+    }
+
+    private static Flux<ChatStreamEvent> toStreamEvents(ChatResponse response) {
+        Flux<ChatStreamEvent> head = Flux.just(ChatStreamEvent.intent(response.getQuery(), response.getIntent()));
+        Flux<ChatStreamEvent> answer = response.getAnswer() == null
+                ? Flux.empty()
+                : Flux.just(ChatStreamEvent.answer(response.getAnswer()));
+        Flux<ChatStreamEvent> events = response.getEvents() == null
+                ? Flux.empty()
+                : Flux.fromIterable(response.getEvents()).map(ChatStreamEvent::event);
+        return Flux.concat(head, answer, events, Flux.just(ChatStreamEvent.done(response.isNoData())));
+    }
+
+    private void notifyListeners(String query, ChatResponse response) {
+        for (ChatResponseListener listener : listeners) {
+            try {
+                listener.onResponse(query, response);
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Response listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private Mono<ChatResponse> callAiService(String query) {
         log.info("➡️ Sending query to AI service: {}", query);
 
+        Mono<ChatResponse> call = hedgingPolicy.hedge(() ->
+                concurrencyLimiter.limit(timedBody(query)));
+        return beforeDeadline(circuitBreaker.protect(call))
+                .doOnSuccess(r -> log.info("✅ AI response received"))
+                .doOnError(e -> log.error("❌ Error calling AI service", e));
+    }
+
+    private Mono<ChatResponse> timedBody(String query) {
+        return Mono.defer(() -> {
+            UpstreamTiming timing = new UpstreamTiming();
+            return retrieve(query, timing)
+                    .bodyToMono(ChatResponse.class)
+                    .doOnSuccess(response -> chatMetrics.recordDecode(timing.sinceHeaders(),
+                            ChatMetrics.outcomeOf(response), response == null ? null : response.getIntent()))
+                    .doOnError(e -> chatMetrics.recordDecode(timing.sinceHeaders(), ChatMetrics.OUTCOME_ERROR, null));
+        });
+    }
+
+    private WebClient.ResponseSpec retrieve(String query) {
+        return retrieve(query, new UpstreamTiming());
+    }
+
+    private WebClient.ResponseSpec retrieve(String query, UpstreamTiming timing) {
         return webClient.post()
                 .uri("/api/chat")
+                .attribute(TIMING_ATTRIBUTE, timing)
                 .bodyValue(new ChatRequest(query))
                 .retrieve()
                 .onStatus(
@@ -30,9 +231,97 @@ public class ChatService {
                                 .flatMap(e -> Mono.error(
                                         new RuntimeException("AI Service Error: " + response.statusCode(), e)
                                 ))
-                )
-                .bodyToMono(ChatResponse.class)
-                .doOnSuccess(r -> log.info("✅ AI response received"))
-                .doOnError(e -> log.error("❌ Error calling AI service", e));
+                );
+    }
+
+    /**
+     * Bounds this caller's wait by its own deadline. Timing out only cancels this
+     * subscription; a shared upstream call is cancelled once every joiner has gone.
+     */
+    private <T> Mono<T> withinDeadline(Mono<T> call) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = Deadline.from(context).orElse(null);
+            if (deadline == null) {
+                return call;
+            }
+            if (isExpired(context, "before_call")) {
+                return expired();
+            }
+            return call.timeout(deadline.remaining(), Mono.defer(() -> {
+                chatMetrics.recordDeadlineShed("in_flight");
+                return expired();
+            }));
+        });
+    }
+
+    private <T> Mono<T> beforeDeadline(Mono<T> call) {
+        return Mono.deferContextual(context -> isExpired(context, "before_call") ? expired() : call);
+    }
+
+    private <T> Flux<T> beforeDeadline(Flux<T> call) {
+        return Flux.deferContextual(context -> isExpired(context, "before_call") ? expired() : call);
+    }
+
+    private Mono<ClientResponse> enforceDeadline(ClientRequest request, ExchangeFunction next) {
+        return Mono.deferContextual(context -> {
+            Deadline own = Deadline.from(context).orElse(null);
+            Deadline deadline = own != null
+                    ? own
+                    : SharedDeadline.from(context).flatMap(SharedDeadline::latest).orElse(null);
+            if (deadline == null) {
+                return next.exchange(request);
+            }
+            // limiter, hedge delay or connection pool may have used up the budget since the call started
+            if (deadline.isExpired()) {
+                chatMetrics.recordDeadlineShed("before_send");
+                return expired();
+            }
+            Duration remaining = deadline.remaining();
+            ClientRequest withBudget = ClientRequest.from(request)
+                    .header(DeadlineFilter.TIMEOUT_HEADER, String.valueOf(Math.max(1, remaining.toMillis())))
+                    .build();
+            Mono<ClientResponse> exchange = next.exchange(withBudget);
+            if (own == null) {
+                // shared: later callers may wait longer, each one times out in withinDeadline
+                return exchange;
+            }
+            return exchange.timeout(remaining, Mono.defer(() -> {
+                chatMetrics.recordDeadlineShed("in_flight");
+                return expired();
+            }));
+        });
+    }
+
+    private boolean isExpired(ContextView context, String stage) {
+        boolean expired = Deadline.from(context).map(Deadline::isExpired).orElse(false);
+        if (expired) {
+            chatMetrics.recordDeadlineShed(stage);
+        }
+        return expired;
+    }
+
+    private static <T> Mono<T> expired() {
+        return Mono.error(new DeadlineExceededException("Client deadline exceeded"));
+    }
+
+    private Mono<ClientResponse> timeToFirstByte(ClientRequest request, ExchangeFunction next) {
+        long start = System.nanoTime();
+        return next.exchange(request)
+                .doOnNext(response -> {
+                    long now = System.nanoTime();
+                    request.attribute(TIMING_ATTRIBUTE)
+                            .ifPresent(timing -> ((UpstreamTiming) timing).headersAtNanos = now);
+                    chatMetrics.recordTimeToFirstByte(now - start, response.statusCode().is2xxSuccessful()
+                            ? ChatMetrics.OUTCOME_SUCCESS : ChatMetrics.OUTCOME_ERROR);
+                })
+                .doOnError(e -> chatMetrics.recordTimeToFirstByte(System.nanoTime() - start, ChatMetrics.OUTCOME_ERROR));
+    }
+
+    private static final class UpstreamTiming {
+        private volatile long headersAtNanos;
+
+        long sinceHeaders() {
+            return headersAtNanos == 0 ? 0 : System.nanoTime() - headersAtNanos;
+        }
     }
 }
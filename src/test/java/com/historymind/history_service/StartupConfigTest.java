@@ -0,0 +1,39 @@
+package com.historymind.history_service;
+
+import org.junit.jupiter.api.Test;
+import org.springdoc.webflux.api.OpenApiWebfluxResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureWebTestClient
+class StartupConfigTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void springdocBeansAreLazyButApiDocsStillServed() {
+        String[] apiDocsBeans = beanFactory.getBeanNamesForType(OpenApiWebfluxResource.class, true, false);
+
+        assertTrue(apiDocsBeans.length > 0);
+        assertTrue(Arrays.stream(apiDocsBeans).allMatch(name -> beanFactory.getBeanDefinition(name).isLazyInit()));
+
+        webTestClient.get()
+                .uri("/v3/api-docs")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.paths['/api/v1/chat/ask']").exists();
+    }
+}
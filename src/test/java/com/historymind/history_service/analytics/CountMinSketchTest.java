@@ -0,0 +1,34 @@
+package com.historymind.history_service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CountMinSketchTest {
+
+    @Test
+    void estimate_NeverUndercounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 4);
+        for (int i = 0; i < 1000; i++) {
+            sketch.add("key-" + (i % 100));
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(sketch.estimate("key-" + i) >= 10);
+        }
+    }
+
+    @Test
+    void heavyKey_StandsOutFromNoise() {
+        CountMinSketch sketch = new CountMinSketch(1024, 4);
+        for (int i = 0; i < 5000; i++) {
+            sketch.add("noise-" + i);
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.add("trần hưng đạo là ai");
+        }
+
+        long estimate = sketch.estimate("trần hưng đạo là ai");
+        assertTrue(estimate >= 500 && estimate < 550, "estimate " + estimate);
+        assertEquals(0, new CountMinSketch(1024, 4).estimate("unseen"));
+    }
+}
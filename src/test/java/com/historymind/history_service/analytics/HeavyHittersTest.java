@@ -0,0 +1,51 @@
+package com.historymind.history_service.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeavyHittersTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void top_RanksFrequentKeysDespiteManyDistinctOnes() {
+        HeavyHitters hitters = new HeavyHitters(8, 1024, 4, 1000, 4, now::get);
+        for (int i = 0; i < 3000; i++) {
+            hitters.record("rare-" + i);
+            if (i % 10 == 0) {
+                hitters.record("bạch đằng");
+            }
+            if (i % 20 == 0) {
+                hitters.record("điện biên phủ");
+            }
+        }
+
+        List<HeavyHitters.Entry> top = hitters.top(1, 2);
+
+        assertEquals(List.of("bạch đằng", "điện biên phủ"), top.stream().map(HeavyHitters.Entry::key).toList());
+        assertTrue(top.get(0).count() >= 300);
+        assertEquals(3450, hitters.total(1));
+    }
+
+    @Test
+    void window_SlidesOverBuckets() {
+        HeavyHitters hitters = new HeavyHitters(8, 256, 4, 1000, 3, now::get);
+        hitters.record("old");
+        hitters.record("old");
+        now.set(1000);
+        hitters.record("new");
+
+        assertEquals(List.of("new"), hitters.top(1, 10).stream().map(HeavyHitters.Entry::key).toList());
+        assertEquals(List.of(new HeavyHitters.Entry("old", 2), new HeavyHitters.Entry("new", 1)), hitters.top(3, 10));
+
+        now.set(3000);
+        assertEquals(List.of("new"), hitters.top(3, 10).stream().map(HeavyHitters.Entry::key).toList());
+        now.set(4000);
+        assertTrue(hitters.top(3, 10).isEmpty());
+        assertEquals(0, hitters.total(3));
+    }
+}
@@ -0,0 +1,43 @@
+package com.historymind.history_service.analytics;
+
+import com.historymind.history_service.dto.EventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryAnalyticsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void report_CountsNormalizedQueriesAndServedNames() {
+        QueryAnalytics analytics = new QueryAnalytics(true, 5, 256, 4, Duration.ofMinutes(5), 12, () -> 0L);
+        analytics.recordQuery("Trần Hưng Đạo là ai?");
+        analytics.recordQuery("trần hưng đạo là ai");
+        analytics.recordQuery("Ngô Quyền");
+        EventDTO event = new EventDTO();
+        event.setPersons(List.of("Trần Hưng Đạo", " "));
+        event.setPlaces(List.of("Bạch Đằng"));
+        analytics.recordEvents(List.of(event, event));
+
+        Map<String, Object> windows = (Map<String, Object>) analytics.report(1).get("windows");
+
+        assertEquals(List.of("5m", "15m", "60m"), List.copyOf(windows.keySet()));
+        Map<String, Object> hour = (Map<String, Object>) windows.get("60m");
+        assertEquals(3L, hour.get("queries"));
+        assertEquals(List.of(new HeavyHitters.Entry("trần hưng đạo là ai", 2)), hour.get("topQueries"));
+        assertEquals(List.of(new HeavyHitters.Entry("Trần Hưng Đạo", 2)), hour.get("topPersons"));
+        assertEquals(List.of(new HeavyHitters.Entry("Bạch Đằng", 2)), hour.get("topPlaces"));
+    }
+
+    @Test
+    void disabled_RecordsNothing() {
+        QueryAnalytics analytics = new QueryAnalytics(false, 5, 256, 4, Duration.ofMinutes(5), 12, () -> 0L);
+        analytics.recordQuery("Ngô Quyền");
+
+        assertEquals(false, analytics.report(5).get("enabled"));
+    }
+}
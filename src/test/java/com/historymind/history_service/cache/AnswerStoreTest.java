@@ -0,0 +1,136 @@
+package com.historymind.history_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AnswerStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private AnswerStore open(int segmentBytes, int maxSegments) {
+        AnswerStore store = new AnswerStore(true, dir, segmentBytes, maxSegments, Duration.ofHours(1),
+                new ObjectMapper(), new SimpleMeterRegistry());
+        store.awaitWrites();
+        return store;
+    }
+
+    private static ChatResponse answer(String text) {
+        ChatResponse response = new ChatResponse();
+        response.setQuery("q");
+        response.setAnswer(text);
+        EventDTO event = new EventDTO();
+        event.setId("e1");
+        event.setYear(1288);
+        response.setEvents(List.of(event));
+        return response;
+    }
+
+    @Test
+    void putAndGet_RoundTripsThroughMappedSegment() {
+        AnswerStore store = open(64 * 1024, 4);
+
+        store.put("tran hung dao", answer("Trần Hưng Đạo"));
+        store.awaitWrites();
+
+        ChatResponse stored = store.get("tran hung dao");
+        assertEquals("Trần Hưng Đạo", stored.getAnswer());
+        assertEquals(1288, stored.getEvents().get(0).getYear());
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void reopen_RestoresAnswersWrittenBeforeRestart() {
+        AnswerStore first = open(64 * 1024, 4);
+        first.put("a", answer("first"));
+        first.put("a", answer("second"));
+        first.put("b", answer("other"));
+        first.close();
+
+        AnswerStore reopened = open(64 * 1024, 4);
+
+        assertTrue(reopened.isLoaded());
+        assertEquals(2, reopened.size());
+        assertEquals("second", reopened.get("a").getAnswer());
+        assertEquals("other", reopened.get("b").getAnswer());
+    }
+
+    @Test
+    void rolling_CompactsOldestSegmentKeepingLatestAnswers() throws IOException {
+        AnswerStore store = open(1024, 3);
+        for (int i = 0; i < 60; i++) {
+            store.put("key-" + (i % 5), answer("answer " + i));
+        }
+        store.awaitWrites();
+
+        assertTrue(store.segmentCount() <= 3);
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(store.segmentCount(), files.count());
+        }
+        for (int k = 0; k < 5; k++) {
+            assertEquals("answer " + (55 + k), store.get("key-" + k).getAnswer());
+        }
+    }
+
+    @Test
+    void corruptRecord_EndsScanWithoutFailingStartup() throws IOException {
+        AnswerStore first = open(64 * 1024, 4);
+        first.put("good", answer("kept"));
+        first.awaitWrites();
+        first.put("bad", answer("lost"));
+        first.close();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            int firstLength = header.flip().getInt();
+            // flip a byte inside the second record's payload
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), firstLength + 30);
+        }
+
+        AnswerStore reopened = open(64 * 1024, 4);
+
+        assertEquals("kept", reopened.get("good").getAnswer());
+        assertNull(reopened.get("bad"));
+    }
+
+    @Test
+    void segmentSize_IsValidatedWithoutIntOverflow() {
+        assertEquals(16 * 1024 * 1024, AnswerStore.segmentBytes(16));
+        assertEquals(2047L * 1024 * 1024, AnswerStore.segmentBytes(AnswerStore.MAX_SEGMENT_SIZE_MB));
+        // 4096 MiB used to wrap around to 0 bytes
+        assertThrows(IllegalArgumentException.class, () -> AnswerStore.segmentBytes(4096));
+        assertThrows(IllegalArgumentException.class, () -> AnswerStore.segmentBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> new AnswerStore(true, dir, 0, 4, Duration.ofHours(1),
+                new ObjectMapper(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void disabledStore_IgnoresEverything() {
+        AnswerStore store = AnswerStore.disabled();
+        store.put("a", answer("x"));
+
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,33 @@
+package com.historymind.history_service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryNormalizerTest {
+
+    @Test
+    void normalize_CaseAndPunctuationCollapse() {
+        assertEquals("trần hưng đạo là ai",
+                QueryNormalizer.normalize("  Trần Hưng Đạo   là AI?? "));
+        assertEquals(QueryNormalizer.normalize("Trần Hưng Đạo là ai?"),
+                QueryNormalizer.normalize("trần hưng đạo, là ai"));
+    }
+
+    @Test
+    void normalize_DecomposedInputMatchesComposed() {
+        String decomposed = java.text.Normalizer.normalize("Đạo", java.text.Normalizer.Form.NFD);
+        assertEquals(QueryNormalizer.normalize("Đạo"), QueryNormalizer.normalize(decomposed));
+    }
+
+    @Test
+    void normalize_KeepsVietnameseDiacritics() {
+        assertNotEquals(QueryNormalizer.normalize("Hà Nội"), QueryNormalizer.normalize("Ha Noi"));
+    }
+
+    @Test
+    void normalize_BlankOrNullIsNull() {
+        assertNull(QueryNormalizer.normalize(null));
+        assertNull(QueryNormalizer.normalize(" \t?! "));
+    }
+}
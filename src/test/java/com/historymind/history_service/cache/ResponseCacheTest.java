@@ -0,0 +1,147 @@
+package com.historymind.history_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+
+    @Test
+    void putAndGet_RecordsHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ResponseCache cache = new ResponseCache(true, 10, 5, AnswerStore.disabled(), registry);
+        ChatResponse response = new ChatResponse();
+        response.setAnswer("answer");
+
+        assertNull(cache.get("key"));
+        cache.put("key", response);
+        assertEquals(response, cache.get("key"));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "chat.response").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "chat.response").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void cachedEvents_RoundTripThroughCompactForm() {
+        ResponseCache cache = new ResponseCache(true, 10, 5, AnswerStore.disabled(), new SimpleMeterRegistry());
+        EventDTO event = new EventDTO();
+        event.setYear(1288);
+        event.setEvent("Trận Bạch Đằng");
+        event.setPersons(List.of("Trần Hưng Đạo"));
+        event.setPlaces(List.of("Bạch Đằng"));
+        event.setKeywords(List.of("thủy chiến"));
+        ChatResponse response = new ChatResponse();
+        response.setIntent("event_lookup");
+        response.setAnswer("answer");
+        response.setEvents(List.of(event));
+
+        cache.put("key", response);
+        ChatResponse first = cache.get("key");
+        ChatResponse second = cache.get("key");
+
+        assertEquals(response, first);
+        assertNotSame(first, second);
+        assertSame(first.getEvents().get(0).getPersons().get(0), second.getEvents().get(0).getPersons().get(0));
+    }
+
+    @Test
+    void nullEvents_AreSkippedWhenCached() {
+        ResponseCache cache = new ResponseCache(true, 10, 5, AnswerStore.disabled(), new SimpleMeterRegistry());
+        EventDTO event = new EventDTO();
+        event.setYear(1288);
+        event.setEvent("Trận Bạch Đằng");
+        ChatResponse response = new ChatResponse();
+        response.setAnswer("answer");
+        response.setEvents(Arrays.asList(null, event, null));
+
+        cache.put("key", response);
+
+        ChatResponse cached = cache.get("key");
+        assertEquals(1, cached.getEvents().size());
+        assertEquals("Trận Bạch Đằng", cached.getEvents().get(0).getEvent());
+    }
+
+    @Test
+    void disabledCache_NeverStores() {
+        ResponseCache cache = ResponseCache.disabled();
+        cache.put("key", new ChatResponse());
+
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void nullKey_IsIgnored() {
+        ResponseCache cache = new ResponseCache(true, 10, 5, AnswerStore.disabled(), new SimpleMeterRegistry());
+        cache.put(null, new ChatResponse());
+
+        assertNull(cache.get(null));
+    }
+
+    @Test
+    void loadStored_WarmsFromAnswerStoreOffTheCallingThread(@TempDir Path dir) {
+        AnswerStore store = store(dir);
+        new ResponseCache(true, 10, 5, store, new SimpleMeterRegistry()).put("key", answer("persisted"));
+        store.awaitWrites();
+
+        ResponseCache afterRestart = new ResponseCache(true, 10, 5, store, new SimpleMeterRegistry());
+        AtomicReference<String> readOn = new AtomicReference<>();
+
+        assertNull(afterRestart.get("key"));
+        ChatResponse stored = afterRestart.loadStored("key")
+                .doOnNext(response -> readOn.set(Thread.currentThread().getName()))
+                .block();
+
+        assertEquals("persisted", stored.getAnswer());
+        assertTrue(readOn.get().startsWith("boundedElastic"), readOn.get());
+        assertEquals("persisted", afterRestart.get("key").getAnswer());
+    }
+
+    @Test
+    void loadStored_NeverOutlivesTheCacheTtlForKeysItHeld(@TempDir Path dir) {
+        AnswerStore store = store(dir);
+        new ResponseCache(true, 10, 5, store, new SimpleMeterRegistry()).put("old", answer("before restart"));
+        store.awaitWrites();
+
+        AtomicLong nanos = new AtomicLong();
+        ResponseCache afterRestart = new ResponseCache(true, 10, Duration.ofMinutes(5), store,
+                new SimpleMeterRegistry(), nanos::get);
+        afterRestart.put("fresh", answer("after restart"));
+        store.awaitWrites();
+        assertNotNull(afterRestart.loadStored("old").block());
+
+        nanos.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        // both are still in the store, whose TTL is an hour, but the cache has held them
+        assertNull(afterRestart.get("old"));
+        assertNull(afterRestart.loadStored("old").block());
+        assertNull(afterRestart.get("fresh"));
+        assertNull(afterRestart.loadStored("fresh").block());
+        assertEquals(2, store.size());
+    }
+
+    private static AnswerStore store(Path dir) {
+        return new AnswerStore(true, dir, 64 * 1024, 4, Duration.ofHours(1),
+                new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    private static ChatResponse answer(String text) {
+        ChatResponse response = new ChatResponse();
+        response.setAnswer(text);
+        return response;
+    }
+}
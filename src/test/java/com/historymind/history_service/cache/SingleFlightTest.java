@@ -0,0 +1,122 @@
+package com.historymind.history_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private SimpleMeterRegistry registry;
+    private SingleFlight<String, String> singleFlight;
+    private Sinks.One<String> upstream;
+    private AtomicInteger subscriptions;
+    private AtomicInteger cancellations;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", registry);
+        upstream = Sinks.one();
+        subscriptions = new AtomicInteger();
+        cancellations = new AtomicInteger();
+    }
+
+    private Mono<String> call() {
+        return upstream.asMono()
+                .doOnSubscribe(s -> subscriptions.incrementAndGet())
+                .doOnCancel(cancellations::incrementAndGet);
+    }
+
+    @Test
+    void execute_SharesResultAcrossSubscribers() {
+        Mono<String> first = singleFlight.execute("k", this::call);
+        Mono<String> second = singleFlight.execute("k", this::call);
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> upstream.tryEmitValue("value"))
+                .consumeNextWith(pair -> {
+                    assertEquals("value", pair.getT1());
+                    assertEquals("value", pair.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, subscriptions.get());
+        assertEquals(1.0, registry.get("test.singleflight.coalesced").counter().count());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_EveryCallerJoinsTheFlightState() {
+        List<String> joined = new ArrayList<>();
+        Mono<String> first = singleFlight.execute("k", ArrayList<String>::new,
+                state -> state.add("first"), state -> call().map(v -> v + state.size()));
+        Mono<String> second = singleFlight.execute("k", ArrayList<String>::new,
+                state -> {
+                    state.add("second");
+                    joined.addAll(state);
+                }, state -> call());
+
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> upstream.tryEmitValue("value"))
+                .consumeNextWith(pair -> assertEquals("value2", pair.getT2()))
+                .verifyComplete();
+
+        assertEquals(List.of("first", "second"), joined);
+        assertEquals(1, subscriptions.get());
+    }
+
+    @Test
+    void execute_OneCancelledSubscriberDoesNotAbortOthers() {
+        Disposable cancelled = singleFlight.execute("k", this::call).subscribe();
+
+        StepVerifier.create(singleFlight.execute("k", this::call))
+                .then(cancelled::dispose)
+                .then(() -> assertEquals(0, cancellations.get()))
+                .then(() -> upstream.tryEmitValue("value"))
+                .expectNext("value")
+                .verifyComplete();
+    }
+
+    @Test
+    void execute_AllSubscribersCancelledCancelsUpstream() {
+        Disposable first = singleFlight.execute("k", this::call).subscribe();
+        Disposable second = singleFlight.execute("k", this::call).subscribe();
+
+        first.dispose();
+        second.dispose();
+
+        assertEquals(1, cancellations.get());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_ErrorPropagatesToAllSubscribers() {
+        Mono<String> first = singleFlight.execute("k", this::call);
+        Mono<String> second = singleFlight.execute("k", this::call);
+
+        StepVerifier.create(Mono.zipDelayError(first.onErrorReturn("first failed"), second))
+                .then(() -> upstream.tryEmitError(new IllegalStateException("boom")))
+                .expectErrorMessage("boom")
+                .verify();
+
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void execute_NullKeyIsNeverCoalesced() {
+        singleFlight.execute(null, this::call).subscribe();
+        singleFlight.execute(null, this::call).subscribe();
+
+        assertEquals(2, subscriptions.get());
+    }
+}
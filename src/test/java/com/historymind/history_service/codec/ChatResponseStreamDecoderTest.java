@@ -0,0 +1,124 @@
+package com.historymind.history_service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatResponseStreamDecoderTest {
+
+    private final ChatResponseStreamDecoder decoder = new ChatResponseStreamDecoder(new ObjectMapper());
+
+    private static Flux<DataBuffer> chunked(String json, int chunkSize) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            int len = Math.min(chunkSize, bytes.length - i);
+            byte[] chunk = new byte[len];
+            System.arraycopy(bytes, i, chunk, 0, len);
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    @Test
+    void decode_EmitsFieldsAndEventsInOrderAcrossChunkBoundaries() {
+        String json = """
+                {
+                    "query": "Năm 1288",
+                    "intent": "year",
+                    "answer": "Trận Bạch Đằng.",
+                    "events": [
+                        {"id": "e1", "year": 1288, "persons": ["Trần Hưng Đạo"], "extra": {"nested": [1, 2]}},
+                        {"id": "e2", "year": 1288}
+                    ],
+                    "meta": {"events": [{"id": "ignored"}]},
+                    "no_data": false
+                }
+                """;
+
+        StepVerifier.create(decoder.decode(chunked(json, 1)))
+                .consumeNextWith(e -> {
+                    assertEquals(ChatStreamEvent.INTENT, e.getType());
+                    assertEquals("Năm 1288", e.getQuery());
+                    assertEquals("year", e.getIntent());
+                })
+                .consumeNextWith(e -> assertEquals("Trận Bạch Đằng.", e.getText()))
+                .consumeNextWith(e -> {
+                    assertEquals("e1", e.getEvent().getId());
+                    assertEquals(List.of("Trần Hưng Đạo"), e.getEvent().getPersons());
+                })
+                .consumeNextWith(e -> assertEquals("e2", e.getEvent().getId()))
+                .consumeNextWith(e -> {
+                    assertEquals(ChatStreamEvent.DONE, e.getType());
+                    assertFalse(e.getNoData());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void decode_ResendsIntentBeforeDoneWhenItArrivesLate() {
+        String json = """
+                {"answer": "Trận Bạch Đằng.", "events": [{"id": "e1"}], "intent": "year", "query": "Năm 1288"}
+                """;
+
+        StepVerifier.create(decoder.decode(chunked(json, 3)))
+                .consumeNextWith(e -> {
+                    assertEquals(ChatStreamEvent.INTENT, e.getType());
+                    assertNull(e.getIntent());
+                })
+                .consumeNextWith(e -> assertEquals("Trận Bạch Đằng.", e.getText()))
+                .consumeNextWith(e -> assertEquals("e1", e.getEvent().getId()))
+                .consumeNextWith(e -> {
+                    assertEquals(ChatStreamEvent.INTENT, e.getType());
+                    assertEquals("year", e.getIntent());
+                    assertEquals("Năm 1288", e.getQuery());
+                })
+                .consumeNextWith(e -> assertEquals(ChatStreamEvent.DONE, e.getType()))
+                .verifyComplete();
+    }
+
+    @Test
+    void decode_HonoursNoDataAliases() {
+        StepVerifier.create(decoder.decode(chunked("{\"intent\": \"unknown\", \"no_data\": true}", 7)))
+                .expectNextMatches(e -> "unknown".equals(e.getIntent()))
+                .expectNextMatches(e -> e.getNoData())
+                .verifyComplete();
+
+        StepVerifier.create(decoder.decode(chunked("{\"noData\": true}", 64)))
+                .expectNextMatches(e -> ChatStreamEvent.INTENT.equals(e.getType()))
+                .expectNextMatches(e -> e.getNoData())
+                .verifyComplete();
+    }
+
+    @Test
+    void decode_EmptyBodyCompletesEmpty() {
+        StepVerifier.create(decoder.decode(Flux.empty()))
+                .verifyComplete();
+    }
+
+    @Test
+    void decode_IncompleteJsonFails() {
+        StepVerifier.create(decoder.decode(chunked("{\"query\": \"test\", \"answer\":", 5)))
+                .expectNextMatches(e -> "test".equals(e.getQuery()))
+                .expectError(DecodingException.class)
+                .verify();
+    }
+
+    @Test
+    void decode_ArrayRootFails() {
+        StepVerifier.create(decoder.decode(chunked("[]", 5)))
+                .expectError(DecodingException.class)
+                .verify();
+    }
+}
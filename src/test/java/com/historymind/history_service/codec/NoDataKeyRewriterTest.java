@@ -0,0 +1,68 @@
+package com.historymind.history_service.codec;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class NoDataKeyRewriterTest {
+
+    private final DefaultDataBufferFactory factory = new DefaultDataBufferFactory();
+
+    @Test
+    public void testRenamesTopLevelKey() {
+        String json = "{\"query\":\"q\",\"events\":[],\"no_data\":true}";
+
+        assertEquals("{\"query\":\"q\",\"events\":[],\"noData\":true}", rewrite(json));
+    }
+
+    @Test
+    public void testRenamesKeySplitAtEveryChunkBoundary() {
+        String json = "{\"answer\":\"a\", \"no_data\" : false, \"intent\":\"x\"}";
+        String expected = "{\"answer\":\"a\", \"noData\" : false, \"intent\":\"x\"}";
+
+        for (int split = 0; split <= json.length(); split++) {
+            assertEquals(expected, rewrite(json.substring(0, split), json.substring(split)), "split at " + split);
+        }
+    }
+
+    @Test
+    public void testLeavesNestedKeysAndValuesAlone() {
+        String json = "{\"answer\":\"\\\"no_data\\\"\",\"events\":[{\"no_data\":1}],\"intent\":\"no_data\"}";
+
+        assertEquals(json, rewrite(json));
+    }
+
+    @Test
+    public void testPassesThroughBodyWithoutKey() {
+        String json = "{\"query\":\"q\",\"answer\":\"a\"}";
+
+        assertEquals(json, rewrite("{\"query\":\"q\",", "\"answer\":\"a\"}"));
+    }
+
+    @Test
+    public void testForwardsHeldBackBytesWhenBodyEndsMidKey() {
+        assertEquals("{\"no_da", rewrite("{\"no_", "da"));
+    }
+
+    private String rewrite(String... chunks) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (String chunk : chunks) {
+            buffers.add(factory.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+        }
+        DataBuffer joined = DataBufferUtils.join(NoDataKeyRewriter.rewrite(Flux.fromIterable(buffers))).block();
+        if (joined == null) {
+            return "";
+        }
+        String result = joined.toString(StandardCharsets.UTF_8);
+        DataBufferUtils.release(joined);
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package com.historymind.history_service.config;
+
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.net.ssl.KeyManagerFactory;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WebClientConfigTest {
+
+    private static final HttpProtocol[] ALL = {HttpProtocol.H2, HttpProtocol.H2C, HttpProtocol.HTTP11};
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+
+    @Test
+    public void testSecureUrlKeepsH2WithHttp11Fallback() {
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11},
+                WebClientConfig.effectiveProtocols("https://ai.example.com", ALL));
+    }
+
+    @Test
+    public void testCleartextUrlKeepsH2cOnly() {
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11},
+                WebClientConfig.effectiveProtocols("http://localhost:8000", ALL));
+    }
+
+    @Test
+    public void testFallsBackToHttp11WhenNothingUsable() {
+        assertArrayEquals(new HttpProtocol[]{HttpProtocol.HTTP11},
+                WebClientConfig.effectiveProtocols("http://localhost:8000", new HttpProtocol[]{HttpProtocol.H2}));
+    }
+
+    @Test
+    public void testDefaultPoolReusesAndScalesConnectionsToHttp11OnlyTlsServer() throws Exception {
+        AtomicInteger connections = new AtomicInteger();
+        DisposableServer server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11)
+                .secure(spec -> spec.sslContext(serverSslContext()))
+                .doOnChannelInit((observer, channel, address) -> connections.incrementAndGet())
+                .route(routes -> routes
+                        .get("/fast", (request, response) -> response.sendString(Mono.just("ok")))
+                        .get("/slow", (request, response) -> response.sendString(
+                                Mono.delay(Duration.ofMillis(500)).thenReturn("ok"))))
+                .bindNow();
+        String url = "https://localhost:" + server.port();
+        HttpProtocol[] protocols = WebClientConfig.effectiveProtocols(url, new HttpProtocol[]{HttpProtocol.HTTP11});
+        ConnectionProvider pool = WebClientConfig.connectionPool(protocols, 200, 4, 100).build();
+        HttpClient client = HttpClient.create(pool)
+                .protocol(protocols)
+                .baseUrl(url)
+                .secure(spec -> spec.sslContext(clientSslContext()));
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertEquals("ok", client.get().uri("/fast").responseContent().aggregate().asString().block());
+                // a connection is released just after its body completes; give it time to return to the pool
+                Thread.sleep(50);
+            }
+            assertEquals(1, connections.get(), "sequential calls opened " + connections.get() + " connections");
+
+            long start = System.nanoTime();
+            Long completed = Flux.range(0, 10)
+                    .flatMap(i -> client.get().uri("/slow").responseContent().aggregate().asString())
+                    .count()
+                    .block(Duration.ofSeconds(10));
+            long elapsedMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            assertEquals(10, completed);
+            // capped at 4 connections, 10 calls of 500 ms would need three rounds
+            assertTrue(elapsedMs < 1400, "concurrent calls were serialized: " + elapsedMs + " ms");
+        } finally {
+            pool.disposeLater().block();
+            server.disposeNow();
+        }
+    }
+
+    private static SslContext serverSslContext() {
+        try (InputStream in = WebClientConfigTest.class.getResourceAsStream("/tls/test-server.p12")) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, KEYSTORE_PASSWORD);
+            return SslContextBuilder.forServer(keyManagers).build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SslContext clientSslContext() {
+        try {
+            return SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE).build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.BatchChatResult;
+import com.historymind.history_service.dto.ChatRequest;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.resilience.ClientRateLimiter;
+import com.historymind.history_service.service.BatchChatService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+@WebFluxTest(BatchChatController.class)
+public class BatchChatControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BatchChatService batchChatService;
+
+    @MockBean
+    private ClientRateLimiter clientRateLimiter;
+
+    private static Flux<BatchChatResult> completionOrder() {
+        ChatResponse response = new ChatResponse();
+        response.setAnswer("answer");
+        return Flux.just(
+                BatchChatResult.failure(1, "second", "AI Service Error: 503"),
+                BatchChatResult.success(0, "first", response));
+    }
+
+    @Test
+    public void askBatch_ReturnsResultsInRequestOrder() {
+        Mockito.when(batchChatService.processBatch(anyList())).thenReturn(completionOrder());
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new ChatRequest("first"), new ChatRequest("second")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$[0].index").isEqualTo(0)
+                .jsonPath("$[0].response.answer").isEqualTo("answer")
+                .jsonPath("$[1].index").isEqualTo(1)
+                .jsonPath("$[1].error").isEqualTo("AI Service Error: 503");
+    }
+
+    @Test
+    public void streamBatch_EmitsResultsInCompletionOrder() {
+        Mockito.when(batchChatService.processBatch(anyList())).thenReturn(completionOrder());
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(List.of(new ChatRequest("first"), new ChatRequest("second")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchChatResult.class)
+                .value(results -> {
+                    assertThat(results)
+                            .extracting(BatchChatResult::getIndex)
+                            .containsExactly(1, 0);
+                });
+    }
+
+    @Test
+    public void askBatch_ChargesOneRateLimitTokenPerQuestion() {
+        Mockito.when(clientRateLimiter.isEnabled()).thenReturn(true);
+        Mockito.when(clientRateLimiter.tryAcquire(anyString()))
+                .thenReturn(new ClientRateLimiter.Decision(true, 0));
+        Mockito.when(clientRateLimiter.tryAcquire(anyString(), eq(2)))
+                .thenReturn(new ClientRateLimiter.Decision(false, TimeUnit.SECONDS.toNanos(3)));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new ChatRequest("first"), new ChatRequest("second"), new ChatRequest("third")))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.TOO_MANY_REQUESTS)
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "3");
+
+        Mockito.verify(clientRateLimiter).tryAcquire(anyString(), eq(2));
+        Mockito.verify(batchChatService, Mockito.never()).processBatch(anyList());
+    }
+}
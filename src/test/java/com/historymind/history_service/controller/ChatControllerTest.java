@@ -1,10 +1,23 @@
 package com.historymind.history_service.controller;
 
+import com.historymind.history_service.analytics.QueryAnalytics;
+import com.historymind.history_service.dto.ChatExchange;
+import com.historymind.history_service.dto.ChatHistoryPage;
 import com.historymind.history_service.dto.ChatRequest;
 import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import com.historymind.history_service.history.ExchangeLog;
+import com.historymind.history_service.history.SessionHistoryStore;
+import com.historymind.history_service.metrics.ChatMetrics;
+import com.historymind.history_service.prefetch.FollowUpPrefetcher;
+import com.historymind.history_service.resilience.ClientRateLimiter;
 import com.historymind.history_service.service.ChatService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
@@ -12,11 +25,16 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.Collections;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 
 @ExtendWith(SpringExtension.class)
 @WebFluxTest(ChatController.class)
@@ -28,6 +46,25 @@ public class ChatControllerTest {
     @MockBean
     private ChatService chatService;
 
+    @MockBean
+    private ChatMetrics chatMetrics;
+
+    @MockBean
+    private SessionHistoryStore historyStore;
+
+    @MockBean
+    private ExchangeLog exchangeLog;
+
+    @MockBean
+    private QueryAnalytics queryAnalytics;
+
+    @MockBean
+    private FollowUpPrefetcher followUpPrefetcher;
+
+    // disabled by default as a mock, so the rate-limit filter lets every request through
+    @MockBean
+    private ClientRateLimiter clientRateLimiter;
+
     @Test
     public void testAskHistory() {
         ChatResponse mockResponse = new ChatResponse();
@@ -52,4 +89,128 @@ public class ChatControllerTest {
                 .jsonPath("$.answer").isEqualTo("test answer")
                 .jsonPath("$.noData").isEqualTo(false);
     }
+
+    @Test
+    public void testAskHistoryRecordsExchangeForSession() {
+        ChatResponse mockResponse = new ChatResponse();
+        mockResponse.setAnswer("test answer");
+        Mockito.when(chatService.processChat(anyString()))
+                .thenReturn(Mono.just(mockResponse));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(SessionHistoryStore.SESSION_HEADER, "session-1")
+                .bodyValue(new ChatRequest("test query"))
+                .exchange()
+                .expectStatus().isOk();
+
+        ArgumentCaptor<ChatExchange> exchange = ArgumentCaptor.forClass(ChatExchange.class);
+        Mockito.verify(historyStore).record(eq("session-1"), exchange.capture());
+        Mockito.verify(exchangeLog).append("session-1", exchange.getValue());
+        assertEquals("test query", exchange.getValue().getQuery());
+        assertEquals("test answer", exchange.getValue().getAnswer());
+    }
+
+    @Test
+    public void testAskTeachesPrefetcherTheSessionsPreviousQuestion() {
+        ChatResponse mockResponse = new ChatResponse();
+        mockResponse.setAnswer("test answer");
+        Mockito.when(chatService.processChat(anyString())).thenReturn(Mono.just(mockResponse));
+        Mockito.when(followUpPrefetcher.isEnabled()).thenReturn(true);
+        ChatExchange previous = new ChatExchange(1L, "previous query", null, "answer", false, List.of());
+        Mockito.when(historyStore.page("session-1", 0, 1))
+                .thenReturn(new ChatHistoryPage("session-1", 1, 0, 1, List.of(previous)));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(SessionHistoryStore.SESSION_HEADER, "session-1")
+                .bodyValue(new ChatRequest("test query"))
+                .exchange()
+                .expectStatus().isOk();
+
+        Mockito.verify(followUpPrefetcher).onFollowUp("previous query", "test query");
+    }
+
+    @Test
+    public void testStreamHistoryNdjson() {
+        EventDTO event = new EventDTO();
+        event.setId("e1");
+        event.setYear(1288);
+
+        Mockito.when(chatService.streamChat(anyString()))
+                .thenReturn(Flux.just(
+                        ChatStreamEvent.intent("q", "year"),
+                        ChatStreamEvent.answer("Trận Bạch Đằng"),
+                        ChatStreamEvent.event(event),
+                        ChatStreamEvent.done(false)));
+
+        List<ChatStreamEvent> events = webTestClient.post()
+                .uri("/api/v1/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(new ChatRequest("q"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ChatStreamEvent.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(4, events.size());
+        assertEquals("year", events.get(0).getIntent());
+        assertEquals(1288, events.get(2).getEvent().getYear());
+        assertEquals(ChatStreamEvent.DONE, events.get(3).getType());
+    }
+
+    @Test
+    public void testStreamHistorySseReportsUpstreamError() {
+        Mockito.when(chatService.streamChat(anyString()))
+                .thenReturn(Flux.error(new RuntimeException("AI Service Error: 503")));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/stream")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(new ChatRequest("q"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> {
+                    assertTrue(body.contains("event:error"));
+                });
+    }
+
+    @Test
+    public void testAskHistoryShedWhenOverloaded() {
+        Mockito.when(chatService.processChat(anyString()))
+                .thenReturn(Mono.error(new ServiceOverloadedException("AI service concurrency limit reached", 2)));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new ChatRequest("q"))
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "2")
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("AI service concurrency limit reached");
+    }
+
+    @Test
+    public void testAskHistoryDeadlineExceededReturnsGatewayTimeout() {
+        Mockito.when(chatService.processChat(anyString()))
+                .thenReturn(Mono.error(new DeadlineExceededException("Client deadline exceeded")));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-Request-Timeout-Ms", "50")
+                .bodyValue(new ChatRequest("q"))
+                .exchange()
+                .expectStatus().isEqualTo(504)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Client deadline exceeded");
+    }
 }
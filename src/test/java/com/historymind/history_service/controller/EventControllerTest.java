@@ -0,0 +1,122 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.model.HistoryRecord;
+import com.historymind.history_service.model.SymbolTable;
+import com.historymind.history_service.resilience.ClientRateLimiter;
+import com.historymind.history_service.search.EventSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+
+@WebFluxTest(EventController.class)
+public class EventControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private EventIndex eventIndex;
+
+    @MockBean
+    private EventSearchIndex searchIndex;
+
+    @MockBean
+    private ClientRateLimiter clientRateLimiter;
+
+    private static HistoryRecord record() {
+        EventDTO dto = new EventDTO();
+        dto.setId("bach-dang");
+        dto.setYear(1288);
+        dto.setPersons(List.of("Trần Hưng Đạo"));
+        return HistoryRecord.from(dto, new SymbolTable());
+    }
+
+    @Test
+    public void findEvents_ByYear() {
+        Mockito.when(eventIndex.find(eq(1288), isNull(), isNull(), isNull(), eq(50)))
+                .thenReturn(List.of(record()));
+
+        webTestClient.get()
+                .uri("/api/v1/events?year=1288")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("bach-dang")
+                .jsonPath("$[0].persons[0]").isEqualTo("Trần Hưng Đạo");
+    }
+
+    @Test
+    public void timeline_StreamsPageAndReturnsCursorHeader() {
+        Mockito.when(eventIndex.timeline(eq(1200), eq(1300), isNull(), isNull(), isNull(), eq(1000)))
+                .thenReturn(new EventIndex.TimelinePage(List.of(record()), "next"));
+
+        webTestClient.get()
+                .uri("/api/v1/events/timeline?from=1200&to=1300&limit=5000")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(EventController.NEXT_CURSOR_HEADER, "next")
+                .expectBodyList(EventDTO.class)
+                .value(events -> assertEquals("bach-dang", events.get(0).getId()));
+    }
+
+    @Test
+    public void timeline_MalformedCursorIsBadRequest() {
+        Mockito.when(eventIndex.timeline(any(), any(), any(), any(), eq("bad"), anyInt()))
+                .thenThrow(new IllegalArgumentException("Malformed timeline cursor"));
+
+        webTestClient.get()
+                .uri("/api/v1/events/timeline?cursor=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void getEvent_UnknownIdIsNotFound() {
+        Mockito.when(eventIndex.findById(anyString())).thenReturn(Optional.empty());
+
+        webTestClient.get()
+                .uri("/api/v1/events/missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void search_ReturnsScoredEvents() {
+        Mockito.when(searchIndex.search("tran hung dao", EventSearchIndex.Folding.ALWAYS, 100))
+                .thenReturn(Mono.just(List.of(new EventSearchIndex.Hit(record(), 2.5))));
+
+        webTestClient.get()
+                .uri("/api/v1/events/search?q=tran hung dao&fold=ALWAYS&limit=1000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].score").isEqualTo(2.5)
+                .jsonPath("$[0].event.id").isEqualTo("bach-dang");
+    }
+
+    @Test
+    public void search_BlankQueryIsBadRequest() {
+        webTestClient.get()
+                .uri("/api/v1/events/search?q= ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,101 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.ChatExchange;
+import com.historymind.history_service.dto.ChatHistoryPage;
+import com.historymind.history_service.history.SessionHistoryStore;
+import com.historymind.history_service.resilience.ClientRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+
+@ExtendWith(SpringExtension.class)
+@WebFluxTest(HistoryController.class)
+public class HistoryControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private SessionHistoryStore historyStore;
+
+    @MockBean
+    private ClientRateLimiter clientRateLimiter;
+
+    @Test
+    public void getHistory_CapsLimit() {
+        ChatExchange exchange = new ChatExchange(1L, "Trần Hưng Đạo là ai?", "person", "answer", false,
+                List.of("bach-dang"));
+        Mockito.when(historyStore.page("session-1", 0, 100))
+                .thenReturn(new ChatHistoryPage("session-1", 1, 0, 100, List.of(exchange)));
+
+        webTestClient.get()
+                .uri("/api/v1/history/session-1?limit=1000")
+                .header(SessionHistoryStore.SESSION_HEADER, "session-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.total").isEqualTo(1)
+                .jsonPath("$.limit").isEqualTo(100)
+                .jsonPath("$.items[0].query").isEqualTo("Trần Hưng Đạo là ai?")
+                .jsonPath("$.items[0].eventIds[0]").isEqualTo("bach-dang");
+    }
+
+    @Test
+    public void getHistory_RejectsMalformedSessionId() {
+        webTestClient.get()
+                .uri("/api/v1/history/not a session!")
+                .header(SessionHistoryStore.SESSION_HEADER, "not a session!")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verify(historyStore, Mockito.never()).page(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    public void clearHistory_UnknownSessionIsNotFound() {
+        Mockito.when(historyStore.clear("missing")).thenReturn(false);
+
+        webTestClient.delete()
+                .uri("/api/v1/history/missing")
+                .header(SessionHistoryStore.SESSION_HEADER, "missing")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void clearHistory_RejectsMalformedSessionId() {
+        webTestClient.delete()
+                .uri("/api/v1/history/not a session!")
+                .header(SessionHistoryStore.SESSION_HEADER, "not a session!")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        Mockito.verify(historyStore, Mockito.never()).clear(anyString());
+    }
+
+    @Test
+    public void history_IsOnlyAccessibleWithTheSessionsOwnHeader() {
+        webTestClient.get()
+                .uri("/api/v1/history/session-1")
+                .exchange()
+                .expectStatus().isForbidden();
+        webTestClient.delete()
+                .uri("/api/v1/history/session-1")
+                .header(SessionHistoryStore.SESSION_HEADER, "session-2")
+                .exchange()
+                .expectStatus().isForbidden();
+
+        Mockito.verify(historyStore, Mockito.never()).page(anyString(), anyInt(), anyInt());
+        Mockito.verify(historyStore, Mockito.never()).clear(anyString());
+    }
+}
@@ -0,0 +1,49 @@
+package com.historymind.history_service.controller;
+
+import com.historymind.history_service.dto.Suggestion;
+import com.historymind.history_service.resilience.ClientRateLimiter;
+import com.historymind.history_service.search.SuggestIndex;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+@WebFluxTest(SuggestController.class)
+public class SuggestControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private SuggestIndex suggestIndex;
+
+    @MockBean
+    private ClientRateLimiter clientRateLimiter;
+
+    @Test
+    public void suggest_ReturnsSuggestionsWithCappedLimit() {
+        Mockito.when(suggestIndex.suggest("Trần H", 20))
+                .thenReturn(List.of(new Suggestion("Trần Hưng Đạo", SuggestIndex.PERSON, 42)));
+
+        webTestClient.get()
+                .uri(uri -> uri.path("/api/v1/suggest").queryParam("prefix", "Trần H").queryParam("limit", 500).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].text").isEqualTo("Trần Hưng Đạo")
+                .jsonPath("$[0].type").isEqualTo("person")
+                .jsonPath("$[0].count").isEqualTo(42);
+    }
+
+    @Test
+    public void suggest_MissingPrefixIsBadRequest() {
+        webTestClient.get()
+                .uri("/api/v1/suggest")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
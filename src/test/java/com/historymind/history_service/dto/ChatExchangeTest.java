@@ -0,0 +1,26 @@
+package com.historymind.history_service.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChatExchangeTest {
+
+    @Test
+    public void testOfSkipsNullEventsAndIds() {
+        EventDTO withId = new EventDTO();
+        withId.setId("bach-dang");
+        EventDTO withoutId = new EventDTO();
+        ChatResponse response = new ChatResponse();
+        response.setAnswer("answer");
+        response.setEvents(Arrays.asList(null, withId, withoutId));
+
+        ChatExchange exchange = ChatExchange.of("q", response);
+
+        assertEquals(List.of("bach-dang"), exchange.getEventIds());
+        assertEquals("answer", exchange.getAnswer());
+    }
+}
@@ -0,0 +1,117 @@
+package com.historymind.history_service.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatExchange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeLogTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ExchangeLog log(Path dir, int queueCapacity, ExchangeLog.Overflow overflow) {
+        // an hour-long interval keeps the timer out of the way; tests flush explicitly
+        return new ExchangeLog(true, dir, queueCapacity, 100, Duration.ofHours(1), overflow,
+                objectMapper, registry);
+    }
+
+    private static ChatExchange exchange(int i) {
+        return new ChatExchange(i, "query " + i, "intent", "answer " + i, false, List.of("event-" + i));
+    }
+
+    private List<JsonNode> lines(Path dir) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.sorted().toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    lines.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void flush_WritesOneJsonLinePerExchange(@TempDir Path dir) throws IOException {
+        ExchangeLog log = log(dir, 1000, ExchangeLog.Overflow.DROP_OLDEST);
+        for (int i = 0; i < 3; i++) {
+            log.append("s1", exchange(i));
+        }
+        log.awaitFlush();
+
+        List<JsonNode> lines = lines(dir);
+        assertEquals(3, lines.size());
+        assertEquals("s1", lines.get(0).get("sessionId").asText());
+        assertEquals("query 0", lines.get(0).get("query").asText());
+        assertEquals("event-2", lines.get(2).get("eventIds").get(0).asText());
+        assertEquals(0, log.queueDepth());
+        assertEquals(3.0, registry.get("chat.exchanges.logged").tag("result", "written").counter().count());
+        log.close();
+    }
+
+    @Test
+    void fullQueue_DropOldestKeepsNewest(@TempDir Path dir) throws IOException {
+        ExchangeLog log = new ExchangeLog(true, dir, 2, 1000, Duration.ofHours(1),
+                ExchangeLog.Overflow.DROP_OLDEST, objectMapper, registry);
+        for (int i = 0; i < 5; i++) {
+            log.append(null, exchange(i));
+        }
+        assertEquals(2, log.queueDepth());
+        log.awaitFlush();
+
+        assertEquals(List.of("query 3", "query 4"), lines(dir).stream().map(n -> n.get("query").asText()).toList());
+        assertEquals(3.0, registry.get("chat.exchanges.logged").tag("result", "dropped").counter().count());
+        log.close();
+    }
+
+    @Test
+    void fullQueue_DropNewestKeepsOldest(@TempDir Path dir) throws IOException {
+        ExchangeLog log = new ExchangeLog(true, dir, 2, 1000, Duration.ofHours(1),
+                ExchangeLog.Overflow.DROP_NEWEST, objectMapper, registry);
+        for (int i = 0; i < 5; i++) {
+            log.append(null, exchange(i));
+        }
+        log.awaitFlush();
+
+        assertEquals(List.of("query 0", "query 1"), lines(dir).stream().map(n -> n.get("query").asText()).toList());
+        log.close();
+    }
+
+    @Test
+    void reachingBatchSize_FlushesWithoutWaitingForTimer(@TempDir Path dir) throws Exception {
+        ExchangeLog log = new ExchangeLog(true, dir, 1000, 4, Duration.ofHours(1),
+                ExchangeLog.Overflow.DROP_OLDEST, objectMapper, registry);
+        for (int i = 0; i < 4; i++) {
+            log.append("s1", exchange(i));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (log.queueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, log.queueDepth());
+        log.close();
+    }
+
+    @Test
+    void disabledLog_IgnoresAppends() {
+        ExchangeLog log = ExchangeLog.disabled();
+        log.append("s1", exchange(1));
+
+        assertFalse(log.isEnabled());
+        assertEquals(0, log.queueDepth());
+    }
+}
@@ -0,0 +1,102 @@
+package com.historymind.history_service.history;
+
+import com.historymind.history_service.dto.ChatExchange;
+import com.historymind.history_service.dto.ChatHistoryPage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionHistoryStoreTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private SessionHistoryStore store(int maxEntries, int maxBytesPerSession) {
+        return new SessionHistoryStore(true, 100, maxEntries, maxBytesPerSession, 4000,
+                Duration.ofMinutes(30), new SimpleMeterRegistry(), now::get);
+    }
+
+    private static ChatExchange exchange(int i, String answer) {
+        return new ChatExchange(i, "query " + i, "intent", answer, false, List.of("event-" + i));
+    }
+
+    @Test
+    void page_ReturnsNewestFirst() {
+        SessionHistoryStore store = store(10, 32 * 1024);
+        for (int i = 0; i < 5; i++) {
+            store.record("s1", exchange(i, "Trận Bạch Đằng " + i));
+        }
+
+        ChatHistoryPage page = store.page("s1", 1, 2);
+
+        assertEquals(5, page.getTotal());
+        assertEquals(List.of("query 3", "query 2"), page.getItems().stream().map(ChatExchange::getQuery).toList());
+        assertEquals("Trận Bạch Đằng 3", page.getItems().get(0).getAnswer());
+        assertEquals(List.of("event-3"), page.getItems().get(0).getEventIds());
+    }
+
+    @Test
+    void record_OverwritesOldestWhenEntryLimitReached() {
+        SessionHistoryStore store = store(3, 32 * 1024);
+        for (int i = 0; i < 7; i++) {
+            store.record("s1", exchange(i, "answer"));
+        }
+
+        ChatHistoryPage page = store.page("s1", 0, 10);
+
+        assertEquals(3, page.getTotal());
+        assertEquals(List.of(6L, 5L, 4L), page.getItems().stream().map(ChatExchange::getAskedAt).toList());
+    }
+
+    @Test
+    void record_GrowsThenWrapsWithinByteBudget() {
+        SessionHistoryStore store = store(100, 8 * 1024);
+        String answer = "x".repeat(1000);
+        for (int i = 0; i < 40; i++) {
+            store.record("s1", exchange(i, answer));
+        }
+
+        ChatHistoryPage page = store.page("s1", 0, 100);
+
+        assertEquals(8 * 1024, store.retainedBytes());
+        assertTrue(page.getTotal() > 1 && page.getTotal() < 10);
+        for (int i = 0; i < page.getItems().size(); i++) {
+            assertEquals(39 - i, page.getItems().get(i).getAskedAt());
+            assertEquals(answer, page.getItems().get(i).getAnswer());
+        }
+    }
+
+    @Test
+    void idleSessions_AreEvicted() {
+        SessionHistoryStore store = store(10, 32 * 1024);
+        store.record("s1", exchange(1, "answer"));
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(31));
+
+        assertEquals(0, store.page("s1", 0, 10).getTotal());
+        assertEquals(0, store.sessionCount());
+    }
+
+    @Test
+    void malformedSessionIds_AreIgnored() {
+        SessionHistoryStore store = store(10, 32 * 1024);
+        store.record("../etc", exchange(1, "answer"));
+        store.record(null, exchange(2, "answer"));
+
+        assertEquals(0, store.sessionCount());
+    }
+
+    @Test
+    void disabledStore_KeepsNothing() {
+        SessionHistoryStore store = SessionHistoryStore.disabled();
+        store.record("s1", exchange(1, "answer"));
+
+        assertFalse(store.isEnabled());
+        assertEquals(0, store.page("s1", 0, 10).getTotal());
+    }
+}
@@ -0,0 +1,207 @@
+package com.historymind.history_service.index;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.model.HistoryRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventIndexTest {
+
+    private SimpleMeterRegistry registry;
+    private EventIndex index;
+
+    static EventDTO event(String id, Integer year, List<String> persons, List<String> places) {
+        EventDTO dto = new EventDTO();
+        dto.setId(id);
+        dto.setYear(year);
+        dto.setPersons(persons);
+        dto.setPlaces(places);
+        dto.setKeywords(List.of());
+        return dto;
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        index = new EventIndex(3, registry);
+        index.ingest(List.of(
+                event("bach-dang", 1288, List.of("Trần Hưng Đạo"), List.of("Bạch Đằng")),
+                event("hich-tuong-si", 1285, List.of("Trần Hưng Đạo"), List.of("Thăng Long")),
+                event("dien-hong", 1284, List.of("Trần Nhân Tông"), List.of("Thăng Long"))));
+    }
+
+    @Test
+    void findByYear_UsesSortedYears() {
+        List<HistoryRecord> result = index.find(1285, null, null, null, 10);
+
+        assertEquals(1, result.size());
+        assertEquals("hich-tuong-si", result.get(0).getId());
+    }
+
+    @Test
+    void findByPerson_IsNormalizedAndChronological() {
+        List<HistoryRecord> result = index.find(null, "trần hưng đạo", null, null, 10);
+
+        assertEquals(List.of("hich-tuong-si", "bach-dang"), result.stream().map(HistoryRecord::getId).toList());
+    }
+
+    @Test
+    void find_IntersectsFilters() {
+        List<HistoryRecord> result = index.find(null, "Trần Hưng Đạo", "Thăng Long", null, 10);
+
+        assertEquals(1, result.size());
+        assertEquals(1285, result.get(0).getYear());
+        assertTrue(index.find(1288, null, "Thăng Long", null, 10).isEmpty());
+    }
+
+    @Test
+    void ingest_ReplacesExistingAndRejectsWhenFull() {
+        index.onResponse("q", responseWith(event("dien-hong", 1284, List.of("Trần Nhân Tông"), List.of("Diên Hồng"))));
+        index.ingest(List.of(event("new-event", 1400, List.of(), List.of())));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("Diên Hồng"), index.findById("dien-hong").orElseThrow().getPlaces());
+        assertEquals(1, index.find(null, null, "Diên Hồng", null, 10).size());
+        assertEquals(1.0, registry.get("events.index.rejected").counter().count());
+    }
+
+    @Test
+    void timeline_PagesThroughYearRangeWithStableCursor() {
+        EventIndex large = new EventIndex(100, registry);
+        for (int year = 1200; year < 1300; year += 10) {
+            large.ingest(List.of(event("e" + year, year, List.of(), List.of())));
+        }
+        large.ingest(List.of(event("undated", null, List.of(), List.of())));
+
+        EventIndex.TimelinePage first = large.timeline(1220, 1270, null, null, null, 3);
+        assertEquals(List.of(1220, 1230, 1240), first.records().stream().map(HistoryRecord::getYear).toList());
+        assertNotNull(first.nextCursor());
+
+        // an event indexed between pages must not shift the next page
+        large.ingest(List.of(event("e1225", 1225, List.of(), List.of())));
+        EventIndex.TimelinePage second = large.timeline(1220, 1270, null, null, first.nextCursor(), 3);
+        assertEquals(List.of(1250, 1260, 1270), second.records().stream().map(HistoryRecord::getYear).toList());
+        assertNull(second.nextCursor());
+
+        assertEquals(11, large.timeline(null, null, null, null, null, 100).records().size());
+    }
+
+    @Test
+    void timeline_FiltersByPersonAndPlaceWithinRange() {
+        EventIndex.TimelinePage page = index.timeline(1280, 1290, "Trần Hưng Đạo", "Thăng Long", null, 10);
+
+        assertEquals(List.of("hich-tuong-si"), page.records().stream().map(HistoryRecord::getId).toList());
+        assertTrue(index.timeline(1286, null, "Trần Hưng Đạo", null, null, 10).records().stream()
+                .allMatch(r -> r.getYear() >= 1286));
+        assertThrows(IllegalArgumentException.class, () -> index.timeline(null, null, null, null, "%%%", 10));
+    }
+
+    @Test
+    void loadSnapshot_IndexesEventsFromFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("events.json");
+        Files.writeString(file, "[{\"id\":\"chi-lang\",\"year\":1427,\"persons\":[\"Lê Lợi\"]}]");
+        EventIndex loaded = new EventIndex(100, registry);
+
+        loaded.loadSnapshot(file, new ObjectMapper());
+
+        assertEquals(1427, loaded.timeline(1400, 1500, "lê lợi", null, null, 10).records().get(0).getYear());
+    }
+
+    private static ChatResponse responseWith(EventDTO event) {
+        ChatResponse response = new ChatResponse();
+        response.setEvents(List.of(event));
+        return response;
+    }
+
+    @Test
+    void ingestListener_ReplaysExistingAndReceivesOnlyChanges() {
+        List<String> seen = new ArrayList<>();
+        index.addIngestListener(record -> seen.add(record.getId()));
+        assertEquals(3, seen.size());
+
+        index.ingest(List.of(event("bach-dang", 1288, List.of("Trần Hưng Đạo"), List.of("Bạch Đằng"))));
+        assertEquals(3, seen.size());
+
+        index.ingest(List.of(event("bach-dang", 1288, List.of("Trần Hưng Đạo"), List.of("Sông Bạch Đằng"))));
+        assertEquals(4, seen.size());
+        assertEquals("bach-dang", seen.get(3));
+    }
+
+    @Test
+    void ingest_WithRebuildDelayReadersKeepPreviousSnapshotUntilRebuilt() throws InterruptedException {
+        EventIndex delayed = new EventIndex(10, Duration.ofMillis(50), 100, new SimpleMeterRegistry());
+        try {
+            delayed.ingest(List.of(event("bach-dang", 1288, List.of("Trần Hưng Đạo"), List.of("Bạch Đằng"))));
+            assertEquals(1, delayed.size());
+
+            long giveUp = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (delayed.find(1288, null, null, null, 10).isEmpty() && System.nanoTime() < giveUp) {
+                Thread.sleep(10);
+            }
+            assertEquals("bach-dang", delayed.find(1288, null, null, null, 10).get(0).getId());
+        } finally {
+            delayed.close();
+        }
+    }
+
+    @Test
+    void ingest_WithRebuildDelayDoesNotRebuildOnRead() {
+        EventIndex delayed = new EventIndex(10, Duration.ofHours(1), 100, new SimpleMeterRegistry());
+        try {
+            delayed.ingest(List.of(event("bach-dang", 1288, List.of("Trần Hưng Đạo"), List.of("Bạch Đằng"))));
+
+            assertTrue(delayed.find(1288, null, null, null, 10).isEmpty());
+            assertEquals(1, delayed.size());
+        } finally {
+            delayed.close();
+        }
+    }
+
+    @Test
+    void onResponse_IndexesOffTheCallingThreadAndDropsWhenQueueIsFull() throws InterruptedException {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        EventIndex background = new EventIndex(10, Duration.ofMillis(50), 1, meters);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        background.addIngestListener(record -> {
+            threads.add(Thread.currentThread().getName());
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            background.onResponse("q1", responseWith(event("bach-dang", 1288, List.of(), List.of())));
+            // the first answer holds the only queue slot while its listener is blocked
+            background.onResponse("q2", responseWith(event("chi-lang", 1427, List.of(), List.of())));
+            release.countDown();
+
+            long giveUp = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (background.size() == 0 && System.nanoTime() < giveUp) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, background.size());
+            assertEquals(List.of("event-index"), threads);
+            assertEquals(1.0, meters.get("events.index.ingest.dropped").counter().count());
+        } finally {
+            background.close();
+        }
+    }
+}
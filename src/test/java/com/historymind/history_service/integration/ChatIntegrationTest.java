@@ -3,8 +3,10 @@ package com.historymind.history_service.integration;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.historymind.history_service.dto.ChatRequest;
 import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.resilience.DeadlineFilter;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -15,8 +17,10 @@ import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class ChatIntegrationTest {
@@ -40,6 +44,7 @@ public class ChatIntegrationTest {
     @DynamicPropertySource
     static void properties(DynamicPropertyRegistry registry) {
         registry.add("ai.service.url", () -> mockWebServer.url("/").toString());
+        registry.add("management.endpoints.web.exposure.include", () -> "health,info,metrics,topqueries");
     }
 
     @Test
@@ -75,5 +80,34 @@ public class ChatIntegrationTest {
                     assertEquals("Ho Chi Minh was a revolutionary leader.", response.getAnswer());
                     assertEquals(false, response.isNoData());
                 });
+
+        webTestClient.get()
+                .uri("/actuator/topqueries")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.windows['5m'].topQueries[0].key").isEqualTo("who is uncle ho");
+    }
+
+    @Test
+    void testAskForwardsRemainingBudgetUpstream() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"Who moved the capital to Thang Long?\", \"answer\": \"Lý Công Uẩn\"}")
+                .addHeader("Content-Type", "application/json"));
+
+        webTestClient.post()
+                .uri("/api/v1/chat/ask")
+                .header(DeadlineFilter.TIMEOUT_HEADER, "2000")
+                .bodyValue(new ChatRequest("Who moved the capital to Thang Long?"))
+                .exchange()
+                .expectStatus().isOk();
+
+        // the server is shared with the other tests, so skip their requests
+        RecordedRequest upstream;
+        do {
+            upstream = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        } while (!upstream.getBody().readUtf8().contains("Thang Long"));
+        long forwardedMs = Long.parseLong(upstream.getHeader(DeadlineFilter.TIMEOUT_HEADER));
+        assertTrue(forwardedMs > 0 && forwardedMs <= 2000, "forwarded " + forwardedMs);
     }
 }
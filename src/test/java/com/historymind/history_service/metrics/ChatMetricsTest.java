@@ -0,0 +1,67 @@
+package com.historymind.history_service.metrics;
+
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class ChatMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ChatMetrics metrics = new ChatMetrics(registry);
+
+    @Test
+    public void testRecordRequestTagsEndpointOutcomeAndIntent() {
+        metrics.recordRequest("ask", TimeUnit.MILLISECONDS.toNanos(120), ChatMetrics.OUTCOME_SUCCESS, "event_lookup");
+        metrics.recordRequest("ask", TimeUnit.MILLISECONDS.toNanos(80), ChatMetrics.OUTCOME_SUCCESS, "event_lookup");
+
+        Timer timer = registry.find("chat.request")
+                .tags("endpoint", "ask", "outcome", "success", "intent", "event_lookup")
+                .timer();
+        assertNotNull(timer);
+        assertEquals(2, timer.count());
+        assertEquals(200, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    public void testIntentTagIsBounded() {
+        assertEquals("none", ChatMetrics.intentTag(null));
+        assertEquals("none", ChatMetrics.intentTag(" "));
+        assertEquals("year_query", ChatMetrics.intentTag("year_query"));
+        assertEquals("other", ChatMetrics.intentTag("Nhà Trần là gì?"));
+    }
+
+    @Test
+    public void testUpstreamTimersAreSeparated() {
+        metrics.recordTimeToFirstByte(1_000_000, ChatMetrics.OUTCOME_SUCCESS);
+        metrics.recordDecode(2_000_000, ChatMetrics.OUTCOME_NO_DATA, null);
+
+        assertEquals(1, registry.get("chat.upstream.ttfb").tag("outcome", "success").timer().count());
+        assertEquals(1, registry.get("chat.upstream.decode")
+                .tags("outcome", "no_data", "intent", "none").timer().count());
+    }
+
+    @Test
+    public void testOutcomeOf() {
+        ChatResponse noData = new ChatResponse();
+        noData.setNoData(true);
+
+        assertEquals(ChatMetrics.OUTCOME_EMPTY, ChatMetrics.outcomeOf(null));
+        assertEquals(ChatMetrics.OUTCOME_NO_DATA, ChatMetrics.outcomeOf(noData));
+        assertEquals(ChatMetrics.OUTCOME_SUCCESS, ChatMetrics.outcomeOf(new ChatResponse()));
+    }
+
+    @Test
+    public void testShedErrorsAreSeparatedFromFailures() {
+        assertEquals(ChatMetrics.OUTCOME_SHED, ChatMetrics.errorOutcome(new ServiceOverloadedException("busy", 1)));
+        assertEquals(ChatMetrics.OUTCOME_SHED, ChatMetrics.errorOutcome(new DeadlineExceededException("late")));
+        assertEquals(ChatMetrics.OUTCOME_ERROR, ChatMetrics.errorOutcome(new IllegalStateException("boom")));
+    }
+}
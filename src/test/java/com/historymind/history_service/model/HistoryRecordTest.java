@@ -0,0 +1,93 @@
+package com.historymind.history_service.model;
+
+import com.historymind.history_service.dto.EventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryRecordTest {
+
+    private static EventDTO event() {
+        EventDTO dto = new EventDTO();
+        dto.setId("bach-dang");
+        dto.setYear(1288);
+        dto.setEvent("Trận Bạch Đằng");
+        dto.setTone("heroic");
+        dto.setPersons(List.of("Trần Hưng Đạo"));
+        dto.setPlaces(List.of("Bạch Đằng", "Vân Đồn"));
+        dto.setKeywords(List.of("cọc gỗ"));
+        return dto;
+    }
+
+    @Test
+    void from_SplitsTagsIntoLists() {
+        HistoryRecord event = HistoryRecord.from(event(), new SymbolTable());
+
+        assertEquals(1288, event.getYear());
+        assertTrue(event.hasYear());
+        assertEquals(List.of("Trần Hưng Đạo"), event.getPersons());
+        assertEquals(List.of("Bạch Đằng", "Vân Đồn"), event.getPlaces());
+        assertEquals(List.of("cọc gỗ"), event.getKeywords());
+        assertThrows(UnsupportedOperationException.class, () -> event.getPlaces().add("Huế"));
+        assertThrows(IndexOutOfBoundsException.class, () -> event.getPersons().get(1));
+    }
+
+    @Test
+    void from_DropsBlankTagsAndKeepsUnknownYear() {
+        EventDTO dto = new EventDTO();
+        dto.setId("x");
+        dto.setPersons(Arrays.asList(null, " "));
+        dto.setPlaces(List.of("Huế"));
+
+        EventDTO copy = HistoryRecord.from(dto, new SymbolTable()).toEventDTO();
+
+        assertNull(copy.getYear());
+        assertEquals(List.of(), copy.getPersons());
+        assertEquals(List.of("Huế"), copy.getPlaces());
+        assertEquals(List.of(), copy.getKeywords());
+    }
+
+    @Test
+    void toEventDto_RoundTrips() {
+        EventDTO dto = event();
+
+        assertEquals(dto, HistoryRecord.from(dto, new SymbolTable()).toEventDTO());
+    }
+
+    @Test
+    void from_SharesSymbolsThroughOwnersTable() {
+        SymbolTable table = new SymbolTable();
+        HistoryRecord first = HistoryRecord.from(event(), table);
+        HistoryRecord second = HistoryRecord.from(event(), table);
+
+        assertSame(first.getPlaces().get(0), second.getPlaces().get(0));
+        assertSame(first.getTone(), second.getTone());
+        assertEquals(5, table.size());
+    }
+
+    @Test
+    void equals_ComparesContentAcrossTables() {
+        SymbolTable shifted = new SymbolTable();
+        shifted.intern("Vân Đồn");
+        HistoryRecord a = HistoryRecord.from(event(), new SymbolTable());
+        HistoryRecord b = HistoryRecord.from(event(), shifted);
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        EventDTO moved = event();
+        moved.setPlaces(List.of("Bạch Đằng", "Thăng Long"));
+        assertNotEquals(a, HistoryRecord.from(moved, shifted));
+
+        // same ids in a different table must not compare equal
+        SymbolTable other = new SymbolTable();
+        other.intern("Lê Lợi");
+        EventDTO renamed = event();
+        renamed.setPersons(List.of("Lê Lợi"));
+        HistoryRecord c = HistoryRecord.from(renamed, other);
+        assertNotEquals(a, c);
+    }
+}
@@ -0,0 +1,101 @@
+package com.historymind.history_service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    void intern_ReturnsSameIdForEqualStrings() {
+        SymbolTable table = new SymbolTable();
+
+        int first = table.intern("Trần Hưng Đạo");
+        int second = table.intern(new String("Trần Hưng Đạo"));
+
+        assertEquals(first, second);
+        assertNotEquals(first, table.intern("Lê Lợi"));
+        assertEquals("Trần Hưng Đạo", table.symbol(first));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    void canonical_ReturnsHeldInstance() {
+        SymbolTable table = new SymbolTable();
+        String held = table.canonical("Thăng Long");
+
+        assertSame(held, table.canonical(new String("Thăng Long")));
+        assertNull(table.canonical(null));
+    }
+
+    @Test
+    void intern_GrowsPastInitialArray() {
+        SymbolTable table = new SymbolTable();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.intern("tag-" + i));
+        }
+        assertEquals("tag-999", table.symbol(999));
+    }
+
+    @Test
+    void rotateIfFull_StartsFreshTableAtCapacity() {
+        SymbolTable table = new SymbolTable(2);
+        table.intern("a");
+        assertSame(table, table.rotateIfFull());
+
+        table.intern("b");
+        assertTrue(table.isFull());
+        // the bound is soft: an event being encoded can still add its remaining tags
+        assertEquals(2, table.intern("c"));
+
+        SymbolTable next = table.rotateIfFull();
+        assertNotSame(table, next);
+        assertEquals(0, next.size());
+        assertFalse(next.isFull());
+    }
+
+    @Test
+    void constructor_RejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SymbolTable(0));
+    }
+
+    @Test
+    void intern_ConcurrentCallersAgreeOnIds() throws Exception {
+        SymbolTable table = new SymbolTable();
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int[] ids = new int[500];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = table.intern("tag-" + i);
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            int[] expected = results.get(0).get();
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+            assertEquals(500, table.size());
+            for (int i = 0; i < expected.length; i++) {
+                assertEquals("tag-" + i, table.symbol(expected[i]));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
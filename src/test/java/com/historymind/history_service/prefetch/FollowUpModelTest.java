@@ -0,0 +1,78 @@
+package com.historymind.history_service.prefetch;
+
+import com.historymind.history_service.dto.EventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FollowUpModelTest {
+
+    private static EventDTO event(List<String> persons, List<String> places) {
+        EventDTO event = new EventDTO();
+        event.setPersons(persons);
+        event.setPlaces(places);
+        return event;
+    }
+
+    @Test
+    void predict_FallsBackToTemplatesForUnseenEntities() {
+        FollowUpModel model = new FollowUpModel(100);
+        List<EventDTO> events = List.of(event(List.of("Trần Hưng Đạo"), List.of("Bạch Đằng")));
+
+        assertEquals(List.of("Trần Hưng Đạo là ai?", "Bạch Đằng ở đâu?"),
+                model.predict("Kháng chiến chống Nguyên Mông", events, 5));
+        assertEquals(List.of("Trần Hưng Đạo là ai?"), model.predict("Kháng chiến chống Nguyên Mông", events, 1));
+    }
+
+    @Test
+    void predict_SkipsEntitiesTheQueryAlreadyNames() {
+        FollowUpModel model = new FollowUpModel(100);
+        List<EventDTO> events = List.of(event(List.of("Trần Hưng Đạo"), List.of("Bạch Đằng")));
+
+        assertEquals(List.of("Trần Hưng Đạo là ai?"), model.predict("Trận Bạch Đằng năm 1288", events, 5));
+    }
+
+    @Test
+    void predict_PrefersMostAskedLearnedQuestion() {
+        FollowUpModel model = new FollowUpModel(100);
+        List<EventDTO> events = List.of(event(List.of("Trần Hưng Đạo"), List.of()));
+        model.learn("Trần Hưng Đạo sinh năm nào?", events);
+        model.learn("Trần Hưng Đạo có công gì?", events);
+        model.learn("trần hưng đạo có công gì", events);
+        model.learn("Hịch tướng sĩ", events);
+
+        assertEquals(List.of("Trần Hưng Đạo có công gì?"), model.predict("Hịch tướng sĩ", events, 5));
+        assertEquals(1, model.trackedEntities());
+    }
+
+    @Test
+    void learn_KeepsOnlyMostAskedQuestionsPerEntity() {
+        FollowUpModel model = new FollowUpModel(100);
+        List<EventDTO> events = List.of(event(List.of("Ngô Quyền"), List.of()));
+        for (int i = 0; i < 3; i++) {
+            model.learn("Ngô Quyền đánh quân Nam Hán", events);
+        }
+        for (int i = 0; i < 2 * FollowUpModel.QUESTIONS_PER_ENTITY; i++) {
+            model.learn("Ngô Quyền câu hỏi " + i, events);
+        }
+
+        assertEquals(List.of("Ngô Quyền đánh quân Nam Hán"), model.predict("Trận Bạch Đằng 938", events, 1));
+    }
+
+    @Test
+    void predict_PutsLearnedTransitionsBeforeEntityQuestions() {
+        FollowUpModel model = new FollowUpModel(100);
+        List<EventDTO> events = List.of(event(List.of("Trần Hưng Đạo"), List.of()));
+        model.learnTransition("Trận Bạch Đằng 1288", "Quân Nguyên có bao nhiêu thuyền?");
+        model.learnTransition("trận bạch đằng 1288", "Ai chỉ huy quân Nguyên?");
+        model.learnTransition("Trận Bạch Đằng 1288", "Ai chỉ huy quân Nguyên?");
+        model.learnTransition("Trận Bạch Đằng 1288", "trận bạch đằng 1288");
+
+        assertEquals(List.of("Ai chỉ huy quân Nguyên?", "Quân Nguyên có bao nhiêu thuyền?", "Trần Hưng Đạo là ai?"),
+                model.predict("Trận Bạch Đằng 1288", events, 5));
+        assertEquals(List.of("Ai chỉ huy quân Nguyên?"), model.predict("Trận Bạch Đằng 1288", events, 1));
+        assertEquals(1, model.trackedQuestions());
+    }
+}
@@ -0,0 +1,163 @@
+package com.historymind.history_service.prefetch;
+
+import com.historymind.history_service.cache.AnswerStore;
+import com.historymind.history_service.cache.ResponseCache;
+import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.resilience.AdaptiveConcurrencyLimiter;
+import com.historymind.history_service.service.ChatService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class FollowUpPrefetcherTest {
+
+    private final ChatService chatService = Mockito.mock(ChatService.class);
+    private final AdaptiveConcurrencyLimiter limiter = Mockito.mock(AdaptiveConcurrencyLimiter.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private FollowUpPrefetcher prefetcher(int maxPerMinute, int maxInFlight, ResponseCache cache) {
+        return new FollowUpPrefetcher(true, maxPerMinute, maxInFlight, 2, 0.5, Duration.ofMillis(10),
+                new FollowUpModel(100), chatService, cache, limiter, registry, now::get);
+    }
+
+    private static ChatResponse answer(String... persons) {
+        EventDTO event = new EventDTO();
+        event.setPersons(List.of(persons));
+        ChatResponse response = new ChatResponse();
+        response.setEvents(List.of(event));
+        return response;
+    }
+
+    private double count(String result) {
+        return registry.get("chat.prefetch").tag("result", result).counter().count();
+    }
+
+    @Test
+    void onResponse_PrefetchesPredictedFollowUps() {
+        Mockito.when(chatService.prefetchChat(anyString())).thenReturn(Mono.just(new ChatResponse()));
+
+        prefetcher(30, 2, ResponseCache.disabled()).onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+
+        Mockito.verify(chatService).prefetchChat("Trần Nhân Tông là ai?");
+        assertEquals(1.0, count("completed"));
+    }
+
+    @Test
+    void onResponse_IgnoresQueriesWithoutText() {
+        FollowUpPrefetcher prefetcher = prefetcher(30, 2, ResponseCache.disabled());
+
+        prefetcher.onResponse(null, answer("Trần Nhân Tông"));
+        prefetcher.onResponse("  ", answer("Trần Nhân Tông"));
+
+        Mockito.verifyNoInteractions(chatService);
+    }
+
+    @Test
+    void onFollowUp_PrefetchesWhatSessionsAskedNext() {
+        Mockito.when(chatService.prefetchChat(anyString())).thenReturn(Mono.just(new ChatResponse()));
+        FollowUpPrefetcher prefetcher = prefetcher(30, 2, ResponseCache.disabled());
+        prefetcher.onFollowUp("Hội nghị Diên Hồng", "Hội nghị Diên Hồng họp ở đâu?");
+
+        prefetcher.onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+
+        Mockito.verify(chatService).prefetchChat("Hội nghị Diên Hồng họp ở đâu?");
+        Mockito.verify(chatService).prefetchChat("Trần Nhân Tông là ai?");
+    }
+
+    @Test
+    void onResponse_SkipsQuestionsAlreadyCached() {
+        ResponseCache cache = new ResponseCache(true, 10, 5,
+                AnswerStore.disabled(), registry);
+        cache.put("trần nhân tông là ai", new ChatResponse());
+
+        prefetcher(30, 2, cache).onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+
+        Mockito.verifyNoInteractions(chatService);
+        assertEquals(1.0, count("skipped_cached"));
+    }
+
+    @Test
+    void onResponse_YieldsWhenForegroundIsBusy() {
+        Mockito.when(limiter.utilization()).thenReturn(0.75);
+
+        prefetcher(30, 2, ResponseCache.disabled()).onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+
+        Mockito.verifyNoInteractions(chatService);
+        assertEquals(1.0, count("skipped_busy"));
+    }
+
+    @Test
+    void budget_CapsStartsPerMinute() {
+        Mockito.when(chatService.prefetchChat(anyString())).thenReturn(Mono.just(new ChatResponse()));
+        FollowUpPrefetcher prefetcher = prefetcher(2, 1, ResponseCache.disabled());
+
+        prefetcher.onResponse("q1", answer("Lý Thường Kiệt"));
+        prefetcher.onResponse("q2", answer("Lý Công Uẩn"));
+        assertEquals(1.0, count("issued"));
+        assertEquals(1.0, count("skipped_budget"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        prefetcher.onResponse("q2", answer("Lý Công Uẩn"));
+        assertEquals(2.0, count("issued"));
+    }
+
+    @Test
+    void ownPrefetchAnswers_DoNotCascade() {
+        Sinks.One<ChatResponse> upstream = Sinks.one();
+        Mockito.when(chatService.prefetchChat(anyString())).thenReturn(upstream.asMono());
+        FollowUpPrefetcher prefetcher = prefetcher(30, 2, ResponseCache.disabled());
+
+        prefetcher.onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+        assertEquals(1, prefetcher.inFlight());
+        // ChatService notifies listeners about the prefetched answer before it completes
+        prefetcher.onResponse("Trần Nhân Tông là ai?", answer("Trần Thánh Tông"));
+        upstream.tryEmitValue(new ChatResponse());
+
+        Mockito.verify(chatService, Mockito.times(1)).prefetchChat(anyString());
+        assertEquals(0, prefetcher.inFlight());
+    }
+
+    @Test
+    void runningPrefetch_IsCancelledWhenForegroundGetsBusy() throws InterruptedException {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Mockito.when(chatService.prefetchChat(anyString()))
+                .thenReturn(Sinks.<ChatResponse>one().asMono().doOnCancel(() -> cancelled.set(true)));
+        FollowUpPrefetcher prefetcher = prefetcher(30, 2, ResponseCache.disabled());
+
+        prefetcher.onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+        assertEquals(1, prefetcher.inFlight());
+
+        Mockito.when(limiter.utilization()).thenReturn(0.75);
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (prefetcher.inFlight() > 0 && System.nanoTime() < giveUp) {
+            Thread.sleep(10);
+        }
+
+        assertTrue(cancelled.get());
+        assertEquals(1.0, count("cancelled_busy"));
+        assertEquals(0.0, count("completed"));
+    }
+
+    @Test
+    void emptyPrefetch_IsCountedSeparately() {
+        Mockito.when(chatService.prefetchChat(anyString())).thenReturn(Mono.empty());
+
+        prefetcher(30, 2, ResponseCache.disabled()).onResponse("Hội nghị Diên Hồng", answer("Trần Nhân Tông"));
+
+        assertEquals(1.0, count("empty"));
+        assertEquals(0.0, count("completed"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.historymind.history_service.resilience;
+
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private AdaptiveConcurrencyLimiter limiter(int initial) {
+        return new AdaptiveConcurrencyLimiter(true, initial, 2, 100, 1.5, 0.2, 3, registry);
+    }
+
+    @Test
+    void limit_RejectsFastAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(2);
+        Sinks.One<String> pending = Sinks.one();
+
+        limiter.limit(pending.asMono()).subscribe();
+        limiter.limit(pending.asMono()).subscribe();
+
+        StepVerifier.create(limiter.limit(Mono.just("third")))
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(ServiceOverloadedException.class, e);
+                    assertEquals(3, ((ServiceOverloadedException) e).getRetryAfterSeconds());
+                })
+                .verify();
+        assertEquals(1.0, registry.get("chat.limiter.rejected").counter().count());
+        assertEquals(2, limiter.getInFlight());
+
+        pending.tryEmitValue("done");
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void limit_CountsUtilizationWhenDisabled() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(false, 4, 2, 100, 1.5, 0.2, 3, registry);
+        Sinks.One<String> pending = Sinks.one();
+
+        for (int i = 0; i < 6; i++) {
+            limiter.limit(pending.asMono()).subscribe();
+        }
+
+        assertEquals(6, limiter.getInFlight());
+        assertEquals(1.5, limiter.utilization());
+        assertEquals(0.0, registry.get("chat.limiter.rejected").counter().count());
+
+        pending.tryEmitValue("done");
+        assertEquals(0.0, limiter.utilization());
+    }
+
+    @Test
+    void onSample_GrowsWhileRttStable() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(100_000_000L, 10);
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+        assertEquals(limiter.getLimit(), (int) registry.get("chat.limiter.limit").gauge().value());
+    }
+
+    @Test
+    void onSample_ShrinksWhenRttInflates() {
+        AdaptiveConcurrencyLimiter limiter = limiter(50);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(100_000_000L, 50);
+        }
+        int before = limiter.getLimit();
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(1_000_000_000L, 50);
+        }
+
+        assertTrue(limiter.getLimit() < before);
+    }
+
+    @Test
+    void onSample_DoesNotGrowWhenApplicationLimited() {
+        AdaptiveConcurrencyLimiter limiter = limiter(40);
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(100_000_000L, 1);
+        }
+
+        assertEquals(40, limiter.getLimit());
+    }
+
+    @Test
+    void timeoutFailure_BacksOffLimit() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+
+        StepVerifier.create(limiter.limit(Mono.error(new TimeoutException())))
+                .expectError(TimeoutException.class)
+                .verify();
+        StepVerifier.create(limiter.limit(Mono.error(new IllegalArgumentException())))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+
+        assertEquals(18, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+}
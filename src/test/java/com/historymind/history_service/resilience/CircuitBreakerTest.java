@@ -0,0 +1,150 @@
+package com.historymind.history_service.resilience;
+
+import com.historymind.history_service.exception.CircuitOpenException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CircuitBreaker breaker = new CircuitBreaker(true, 10, 4, 0.5, 0.8,
+            Duration.ofSeconds(2), Duration.ofSeconds(30), 2, Duration.ofSeconds(60), registry, now::get);
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.protect(Mono.error(new RuntimeException("AI Service Error: 500"))).onErrorResume(e -> Mono.empty()).block();
+        }
+    }
+
+    private void succeed(int times) {
+        for (int i = 0; i < times; i++) {
+            breaker.protect(Mono.just("ok")).block();
+        }
+    }
+
+    @Test
+    void opensOnFailureRateAndFailsFast() {
+        succeed(2);
+        fail(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        fail(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        StepVerifier.create(breaker.protect(Mono.fromCallable(upstreamCalls::incrementAndGet)))
+                .expectErrorSatisfies(e -> {
+                    assertInstanceOf(CircuitOpenException.class, e);
+                    assertEquals(30, ((CircuitOpenException) e).getRetryAfterSeconds());
+                })
+                .verify();
+        assertEquals(0, upstreamCalls.get());
+        assertEquals(1.0, registry.get("chat.circuit.rejected").counter().count());
+        assertEquals(CircuitBreaker.CIRCUIT_OPEN, breaker.health().getStatus());
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        for (int i = 0; i < 4; i++) {
+            breaker.protect(Mono.fromCallable(() -> now.addAndGet(Duration.ofSeconds(3).toNanos()))).block();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenProbesCloseOnSuccess() {
+        fail(4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        succeed(1);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.CIRCUIT_HALF_OPEN, breaker.health().getStatus());
+        succeed(1);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(Status.UP, breaker.health().getStatus());
+        assertEquals(1.0, registry.get("chat.circuit.transitions").tag("to", "closed").counter().count());
+    }
+
+    @Test
+    void halfOpenLimitsProbesAndReopensOnFailure() {
+        fail(4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        CircuitBreaker.Call first = breaker.tryAcquire();
+        CircuitBreaker.Call second = breaker.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(breaker.tryAcquire());
+
+        first.complete(new RuntimeException("still down"));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void localSheddingIsNotCountedAsFailure() {
+        for (int i = 0; i < 10; i++) {
+            breaker.protect(Mono.error(new ServiceOverloadedException("limit", 1)))
+                    .onErrorResume(e -> Mono.empty()).block();
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void abandonedProbesAfterConcurrentRejectionsFreeTheirSlots() throws InterruptedException {
+        fail(4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        Disposable first = breaker.protect(Mono.never()).subscribe();
+        Disposable second = breaker.protect(Mono.never()).subscribe();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        CountDownLatch rejections = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            pool.execute(() -> {
+                assertNull(breaker.tryAcquire());
+                rejections.countDown();
+            });
+        }
+        assertTrue(rejections.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        first.dispose();
+        second.dispose();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        succeed(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpenTimesOutBackToOpenWhenProbesNeverSettle() {
+        fail(4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        assertNotNull(breaker.tryAcquire());
+        assertNotNull(breaker.tryAcquire());
+        assertNull(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertNull(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        succeed(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
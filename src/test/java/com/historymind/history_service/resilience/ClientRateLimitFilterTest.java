@@ -0,0 +1,108 @@
+package com.historymind.history_service.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientRateLimitFilterTest {
+
+    private final AtomicInteger passed = new AtomicInteger();
+    private final WebFilterChain chain = exchange -> {
+        passed.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private final ClientRateLimitFilter filter = new ClientRateLimitFilter(
+            new ClientRateLimiter(true, 1, 1, 1000, new SimpleMeterRegistry(), () -> 0L),
+            "/api/v1/chat", "X-API-Key", Set.of("partner-key"), true);
+
+    @Test
+    public void testSecondRequestGets429WithRetryAfter() {
+        MockServerWebExchange first = exchange(MockServerHttpRequest.post("/api/v1/chat/ask"));
+        MockServerWebExchange second = exchange(MockServerHttpRequest.post("/api/v1/chat/ask"));
+
+        StepVerifier.create(filter.filter(first, chain)).verifyComplete();
+        StepVerifier.create(filter.filter(second, chain)).verifyComplete();
+
+        assertEquals(1, passed.get());
+        assertNull(first.getResponse().getStatusCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, second.getResponse().getStatusCode());
+        assertEquals("1", second.getResponse().getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    public void testRejectionCarriesCorsHeadersForAllowedOrigin() {
+        filter.filter(exchange(MockServerHttpRequest.post("http://localhost:8080/api/v1/chat/ask")
+                .header("Origin", "http://localhost:3000")), chain).block();
+        MockServerWebExchange rejected = exchange(MockServerHttpRequest.post("http://localhost:8080/api/v1/chat/ask")
+                .header("Origin", "http://localhost:3000"));
+        MockServerWebExchange foreign = exchange(MockServerHttpRequest.post("http://localhost:8080/api/v1/chat/ask")
+                .header("Origin", "https://example.com"));
+
+        filter.filter(rejected, chain).block();
+        filter.filter(foreign, chain).block();
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getResponse().getStatusCode());
+        assertEquals("http://localhost:3000",
+                rejected.getResponse().getHeaders().getAccessControlAllowOrigin());
+        assertTrue(rejected.getResponse().getHeaders().getAccessControlAllowCredentials());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, foreign.getResponse().getStatusCode());
+        assertNull(foreign.getResponse().getHeaders().getAccessControlAllowOrigin());
+    }
+
+    @Test
+    public void testOtherPathsAreNotLimited() {
+        for (int i = 0; i < 5; i++) {
+            filter.filter(exchange(MockServerHttpRequest.get("/api/v1/ping")), chain).block();
+        }
+
+        assertEquals(5, passed.get());
+    }
+
+    @Test
+    public void testClientKeyPrefersKnownApiKeyThenLastForwardedHop() {
+        assertEquals("key:partner-key", filter.clientKey(MockServerHttpRequest.post("/api/v1/chat/ask")
+                .header("X-API-Key", "partner-key")
+                .header("X-Forwarded-For", "10.0.0.1").build()));
+        assertEquals("ip:203.0.113.7", filter.clientKey(MockServerHttpRequest.post("/api/v1/chat/ask")
+                .header("X-API-Key", "made-up")
+                .header("X-Forwarded-For", "1.1.1.1, 203.0.113.7").build()));
+    }
+
+    @Test
+    public void testForwardedForIsIgnoredUnlessTrusted() {
+        ClientRateLimitFilter direct = new ClientRateLimitFilter(
+                new ClientRateLimiter(true, 1, 1, 1000, new SimpleMeterRegistry(), () -> 0L),
+                "/api/v1/chat", "X-API-Key", Set.of(), false);
+
+        assertEquals("ip:192.0.2.10", direct.clientKey(MockServerHttpRequest.post("/api/v1/chat/ask")
+                .remoteAddress(new InetSocketAddress("192.0.2.10", 40000))
+                .header("X-Forwarded-For", "203.0.113.7").build()));
+    }
+
+    @Test
+    public void testAllowedRequestCarriesItsClientKey() {
+        MockServerWebExchange allowed = exchange(MockServerHttpRequest.post("/api/v1/chat/ask-batch"));
+
+        filter.filter(allowed, chain).block();
+
+        assertEquals("ip:198.51.100.1", allowed.getAttribute(ClientRateLimitFilter.CLIENT_KEY_ATTRIBUTE));
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request.header("X-Forwarded-For", "198.51.100.1"));
+    }
+}
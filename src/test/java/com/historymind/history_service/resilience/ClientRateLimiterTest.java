@@ -0,0 +1,88 @@
+package com.historymind.history_service.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ClientRateLimiter limiter(double rps, int burst, int maxClients) {
+        return new ClientRateLimiter(true, rps, burst, maxClients, registry, now::get);
+    }
+
+    @Test
+    public void testAllowsBurstThenRejectsWithRetryAfter() {
+        ClientRateLimiter limiter = limiter(2, 3, 1000);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("ip:1.2.3.4").allowed());
+        }
+        ClientRateLimiter.Decision rejected = limiter.tryAcquire("ip:1.2.3.4");
+
+        assertFalse(rejected.allowed());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rejected.retryAfterNanos());
+        assertEquals(3, registry.get("http.ratelimit.decisions").tag("decision", "allowed").counter().count());
+        assertEquals(1, registry.get("http.ratelimit.decisions").tag("decision", "rejected").counter().count());
+    }
+
+    @Test
+    public void testTakesSeveralPermitsAtOnceOrNone() {
+        ClientRateLimiter limiter = limiter(2, 5, 1000);
+
+        assertTrue(limiter.tryAcquire("a", 3).allowed());
+        ClientRateLimiter.Decision rejected = limiter.tryAcquire("a", 3);
+        assertFalse(rejected.allowed());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), rejected.retryAfterNanos());
+        assertEquals(1, rejected.retryAfterSeconds());
+        assertTrue(limiter.tryAcquire("a", 2).allowed());
+        assertFalse(limiter.tryAcquire("a").allowed());
+
+        // more than the burst is charged as a full burst rather than rejected forever
+        assertTrue(limiter.tryAcquire("b", 50).allowed());
+        assertFalse(limiter.tryAcquire("b").allowed());
+    }
+
+    @Test
+    public void testRefillsAtConfiguredRate() {
+        ClientRateLimiter limiter = limiter(2, 1, 1000);
+
+        assertTrue(limiter.tryAcquire("a").allowed());
+        assertFalse(limiter.tryAcquire("a").allowed());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(limiter.tryAcquire("a").allowed());
+    }
+
+    @Test
+    public void testClientsAreIndependent() {
+        ClientRateLimiter limiter = limiter(1, 1, 1000);
+
+        assertTrue(limiter.tryAcquire("a").allowed());
+        assertFalse(limiter.tryAcquire("a").allowed());
+        assertTrue(limiter.tryAcquire("b").allowed());
+    }
+
+    @Test
+    public void testEvictsRefilledBucketsWhenFull() {
+        // 16 stripes of one client each
+        ClientRateLimiter limiter = limiter(1, 1, 16);
+        for (int i = 0; i < 200; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        assertTrue(limiter.trackedClients() <= 16);
+        assertTrue(registry.get("http.ratelimit.decisions").tag("decision", "untracked").counter().count() > 0);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        assertTrue(limiter.tryAcquire("newcomer").allowed());
+        assertTrue(limiter.tryAcquire("client-0").allowed());
+    }
+}
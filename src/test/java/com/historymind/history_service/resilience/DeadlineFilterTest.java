@@ -0,0 +1,60 @@
+package com.historymind.history_service.resilience;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineFilterTest {
+
+    private final DeadlineFilter filter =
+            new DeadlineFilter(true, "/api/v1/chat", 25_000, "/api/v1/chat/ask-batch", 60_000);
+
+    @Test
+    public void testClientTimeoutIsCappedAtRouteDefault() {
+        assertEquals(Duration.ofMillis(1500), filter.timeoutFor("/api/v1/chat/ask", "1500"));
+        assertEquals(Duration.ofSeconds(25), filter.timeoutFor("/api/v1/chat/ask", "90000"));
+        assertEquals(Duration.ofSeconds(60), filter.timeoutFor("/api/v1/chat/ask-batch", null));
+    }
+
+    @Test
+    public void testInvalidHeaderFallsBackToRouteDefault() {
+        assertEquals(Duration.ofSeconds(25), filter.timeoutFor("/api/v1/chat/stream", "soon"));
+        assertEquals(Duration.ofSeconds(25), filter.timeoutFor("/api/v1/chat/stream", "-5"));
+    }
+
+    @Test
+    public void testDeadlineIsVisibleDownstream() {
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/chat/ask")
+                .header(DeadlineFilter.TIMEOUT_HEADER, "2000"));
+
+        filter.filter(exchange, ex -> Mono.deferContextual(ctx -> {
+            seen.set(Deadline.from(ctx).orElse(null));
+            return Mono.empty();
+        })).block();
+
+        Duration remaining = seen.get().remaining();
+        assertTrue(remaining.compareTo(Duration.ZERO) > 0 && remaining.compareTo(Duration.ofSeconds(2)) <= 0);
+    }
+
+    @Test
+    public void testOtherPathsGetNoDeadline() {
+        AtomicReference<Deadline> seen = new AtomicReference<>();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/ping"));
+
+        filter.filter(exchange, ex -> Mono.deferContextual(ctx -> {
+            seen.set(Deadline.from(ctx).orElse(null));
+            return Mono.empty();
+        })).block();
+
+        assertNull(seen.get());
+    }
+}
@@ -0,0 +1,98 @@
+package com.historymind.history_service.resilience;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgingPolicyTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private HedgingPolicy policy(double budgetPercent) {
+        return new HedgingPolicy(true, 0.95, 50, 200, budgetPercent, 64, registry);
+    }
+
+    @Test
+    void hedge_SecondCallWinsAndLoserIsCancelled() {
+        HedgingPolicy policy = policy(100);
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        StepVerifier.withVirtualTime(() -> policy.hedge(() -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(10)).map(t -> "slow").doOnCancel(() -> primaryCancelled.set(true))
+                        : Mono.delay(Duration.ofMillis(10)).map(t -> "fast")))
+                .thenAwait(Duration.ofSeconds(1))
+                .expectNext("fast")
+                .verifyComplete();
+
+        assertEquals(2, attempts.get());
+        assertTrue(primaryCancelled.get());
+        assertEquals(1.0, registry.get("chat.hedge.sent").counter().count());
+        assertEquals(1.0, registry.get("chat.hedge.wins").counter().count());
+    }
+
+    @Test
+    void hedge_FastPrimaryNeverHedges() {
+        HedgingPolicy policy = policy(100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(policy.hedge(() -> Mono.fromCallable(attempts::incrementAndGet)))
+                .expectNext(1)
+                .verifyComplete();
+
+        assertEquals(0.0, registry.get("chat.hedge.sent").counter().count());
+    }
+
+    @Test
+    void hedge_BudgetLimitsExtraLoad() {
+        HedgingPolicy policy = policy(0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> policy.hedge(() -> {
+                    attempts.incrementAndGet();
+                    return Mono.delay(Duration.ofSeconds(1)).map(t -> "only");
+                }))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("only")
+                .verifyComplete();
+
+        assertEquals(1, attempts.get());
+        assertEquals(1.0, registry.get("chat.hedge.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void hedge_FailedHedgeDoesNotFailRequest() {
+        HedgingPolicy policy = policy(100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.withVirtualTime(() -> policy.hedge(() -> attempts.incrementAndGet() == 1
+                        ? Mono.delay(Duration.ofSeconds(1)).map(t -> "primary")
+                        : Mono.<String>error(new RuntimeException("hedge rejected"))))
+                .thenAwait(Duration.ofSeconds(2))
+                .expectNext("primary")
+                .verifyComplete();
+    }
+
+    @Test
+    void threshold_TracksObservedPercentileWithinBounds() {
+        HedgingPolicy policy = policy(10);
+        assertEquals(Duration.ofMillis(200), policy.getThreshold());
+
+        for (int i = 1; i <= 64; i++) {
+            policy.recordLatency(Duration.ofMillis(i).toNanos());
+        }
+        assertEquals(Duration.ofMillis(61), policy.getThreshold());
+
+        for (int i = 0; i < 64; i++) {
+            policy.recordLatency(Duration.ofMillis(1).toNanos());
+        }
+        assertEquals(Duration.ofMillis(50), policy.getThreshold());
+    }
+}
@@ -0,0 +1,113 @@
+package com.historymind.history_service.search;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.index.EventIndex;
+import com.historymind.history_service.model.HistoryRecord;
+import com.historymind.history_service.model.SymbolTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventSearchIndexTest {
+
+    private EventSearchIndex index;
+
+    static HistoryRecord record(String id, String title, String story) {
+        EventDTO dto = new EventDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        dto.setStory(story);
+        return HistoryRecord.from(dto, new SymbolTable());
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new EventSearchIndex(4, Schedulers.parallel(), new SimpleMeterRegistry());
+        index.index(record("bach-dang", "Trận Bạch Đằng",
+                "Trần Hưng Đạo cắm cọc trên sông Bạch Đằng và đánh tan quân Nguyên."));
+        index.index(record("hich-tuong-si", "Hịch tướng sĩ",
+                "Trần Hưng Đạo viết Hịch tướng sĩ để khích lệ tướng sĩ."));
+        index.index(record("dien-hong", "Hội nghị Diên Hồng",
+                "Vua Trần Nhân Tông hỏi các bô lão nên hòa hay đánh."));
+        index.index(record("chi-lang", "Trận Chi Lăng",
+                "Lê Lợi phục binh ở ải Chi Lăng."));
+    }
+
+    private List<String> ids(String query, EventSearchIndex.Folding folding) {
+        return index.search(query, folding, 10).block().stream()
+                .map(hit -> hit.record().getId())
+                .toList();
+    }
+
+    @Test
+    void search_RanksByBm25AcrossShards() {
+        assertEquals(List.of("bach-dang"), ids("Bạch Đằng", EventSearchIndex.Folding.AUTO));
+        assertEquals(List.of("hich-tuong-si", "bach-dang"),
+                ids("Hịch tướng sĩ Hưng Đạo", EventSearchIndex.Folding.AUTO));
+    }
+
+    @Test
+    void search_AccentFreeQueryMatchesAccentedText() {
+        assertEquals("chi-lang", ids("chi lang", EventSearchIndex.Folding.AUTO).get(0));
+        assertEquals(List.of("bach-dang", "hich-tuong-si"), ids("hung dao", EventSearchIndex.Folding.AUTO).stream()
+                .sorted().toList());
+        assertTrue(ids("hung dao", EventSearchIndex.Folding.NEVER).isEmpty());
+    }
+
+    @Test
+    void search_AccentedQueryIsExactUnlessFoldingIsForced() {
+        // "tràn" is not "trần": exact in AUTO, accent-insensitive with ALWAYS
+        assertTrue(ids("tràn", EventSearchIndex.Folding.AUTO).isEmpty());
+        assertEquals(4, ids("tràn", EventSearchIndex.Folding.ALWAYS).size());
+    }
+
+    @Test
+    void index_ChangedEventReplacesItsOldDocument() {
+        index.index(record("chi-lang", "Trận Chi Lăng", "Liễu Thăng tử trận ở ải Chi Lăng."));
+
+        assertEquals(4, index.size());
+        assertTrue(ids("Lê Lợi", EventSearchIndex.Folding.AUTO).isEmpty());
+        assertEquals(List.of("chi-lang"), ids("Liễu Thăng", EventSearchIndex.Folding.AUTO));
+    }
+
+    @Test
+    void index_ManyChangesTriggerShardRebuild() {
+        for (int i = 0; i < 3000; i++) {
+            index.index(record("chi-lang", "Trận Chi Lăng", "Phiên bản " + i));
+        }
+
+        assertEquals(4, index.size());
+        assertEquals(List.of("chi-lang"), ids("2999", EventSearchIndex.Folding.AUTO));
+        assertTrue(ids("1234", EventSearchIndex.Folding.AUTO).isEmpty());
+    }
+
+    @Test
+    void search_BlankOrUnknownQueryIsEmpty() {
+        assertTrue(ids("  ", EventSearchIndex.Folding.AUTO).isEmpty());
+        assertTrue(ids("Napoleon", EventSearchIndex.Folding.AUTO).isEmpty());
+    }
+
+    @Test
+    void constructor_IndexesEventsAcceptedByEventIndex() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        EventIndex eventIndex = new EventIndex(100, registry);
+        EventDTO dto = new EventDTO();
+        dto.setId("bach-dang");
+        dto.setTitle("Trận Bạch Đằng");
+        eventIndex.ingest(List.of(dto));
+
+        EventSearchIndex search = new EventSearchIndex(true, 2, eventIndex, registry);
+        EventDTO later = new EventDTO();
+        later.setId("chi-lang");
+        later.setTitle("Trận Chi Lăng");
+        eventIndex.ingest(List.of(later));
+
+        assertEquals(2, search.size());
+        assertEquals(2, search.search("trận", EventSearchIndex.Folding.AUTO, 10).block().size());
+    }
+}
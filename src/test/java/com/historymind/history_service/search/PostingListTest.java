@@ -0,0 +1,45 @@
+package com.historymind.history_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PostingListTest {
+
+    @Test
+    void forEach_DecodesWhatWasAppended() {
+        PostingList list = new PostingList();
+        list.add(0, 1);
+        list.add(5, 3);
+        list.add(100_000, 200);
+
+        List<int[]> decoded = new ArrayList<>();
+        list.forEach((doc, tf) -> decoded.add(new int[] {doc, tf}));
+
+        assertEquals(3, list.docFrequency());
+        assertArrayEquals(new int[] {0, 1}, decoded.get(0));
+        assertArrayEquals(new int[] {5, 3}, decoded.get(1));
+        assertArrayEquals(new int[] {100_000, 200}, decoded.get(2));
+    }
+
+    @Test
+    void add_SmallGapsTakeOneByteEach() {
+        PostingList list = new PostingList();
+        for (int doc = 0; doc < 1000; doc += 2) {
+            list.add(doc, 1);
+        }
+
+        assertEquals(1000, list.sizeInBytes());
+    }
+
+    @Test
+    void add_OutOfOrderDocIsRejected() {
+        PostingList list = new PostingList();
+        list.add(3, 1);
+
+        assertThrows(IllegalArgumentException.class, () -> list.add(3, 1));
+    }
+}
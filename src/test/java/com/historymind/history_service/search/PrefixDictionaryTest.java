@@ -0,0 +1,79 @@
+package com.historymind.history_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixDictionaryTest {
+
+    private static PrefixDictionary.Entry entry(String text, int count) {
+        return new PrefixDictionary.Entry(PrefixDictionary.key(text), text, SuggestIndex.PERSON, count);
+    }
+
+    private static List<String> texts(List<PrefixDictionary.Entry> entries) {
+        return entries.stream().map(PrefixDictionary.Entry::text).toList();
+    }
+
+    @Test
+    void key_FoldsCaseSpacingAndDiacritics() {
+        assertEquals("tran hung dao", PrefixDictionary.key("  Trần   Hưng Đạo "));
+        assertEquals("trần hưng", PrefixDictionary.normalize("TRẦN  Hưng"));
+    }
+
+    @Test
+    void top_RanksPrefixRangeByCount() {
+        PrefixDictionary dictionary = PrefixDictionary.build(List.of(
+                entry("Trần Hưng Đạo", 40),
+                entry("Trần Nhân Tông", 25),
+                entry("Trần Thủ Độ", 60),
+                entry("Triệu Thị Trinh", 10),
+                entry("Lê Lợi", 100)));
+
+        assertEquals(List.of("Trần Thủ Độ", "Trần Hưng Đạo"), texts(dictionary.top("tran", e -> true, 2, 100)));
+        assertEquals(List.of("Trần Thủ Độ", "Trần Hưng Đạo", "Trần Nhân Tông", "Triệu Thị Trinh"),
+                texts(dictionary.top("tr", e -> true, 10, 100)));
+        assertEquals(List.of("Trần Hưng Đạo"), texts(dictionary.top("tran h", e -> true, 10, 100)));
+        assertTrue(dictionary.top("ngo", e -> true, 10, 100).isEmpty());
+    }
+
+    @Test
+    void top_FrontCodingAcrossManyBlocksFindsEveryEntry() {
+        List<PrefixDictionary.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            entries.add(entry("Nhân vật " + i, i));
+        }
+        PrefixDictionary dictionary = PrefixDictionary.build(entries);
+
+        assertEquals(1000, dictionary.size());
+        assertEquals(List.of("Nhân vật 999", "Nhân vật 998"), texts(dictionary.top("nhan vat", e -> true, 2, 100)));
+
+        // "7", "70".."79" and "700".."799"
+        List<PrefixDictionary.Entry> sevens = dictionary.top("nhan vat 7", e -> true, 1000, 1000);
+        assertEquals(111, sevens.size());
+        assertEquals("Nhân vật 799", sevens.get(0).text());
+
+        for (PrefixDictionary.Entry decoded : dictionary.top("nhan", e -> true, 1000, 1000)) {
+            assertEquals(PrefixDictionary.key(decoded.text()), decoded.key());
+        }
+    }
+
+    @Test
+    void top_FilterSkipsEntriesWithinTheExaminedBudget() {
+        PrefixDictionary dictionary = PrefixDictionary.build(List.of(
+                entry("Tran Van", 50),
+                entry("Trần Văn Giàu", 5)));
+
+        assertEquals(List.of("Trần Văn Giàu"),
+                texts(dictionary.top("tran", e -> e.text().startsWith("Trần"), 10, 100)));
+        assertTrue(dictionary.top("tran", e -> e.text().startsWith("Trần"), 10, 1).isEmpty());
+    }
+
+    @Test
+    void top_EmptyDictionaryOrPrefixIsEmpty() {
+        assertTrue(PrefixDictionary.EMPTY.top("a", e -> true, 10, 100).isEmpty());
+        assertTrue(PrefixDictionary.build(List.of(entry("An Dương Vương", 1))).top("", e -> true, 10, 100).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.historymind.history_service.search;
+
+import com.historymind.history_service.dto.EventDTO;
+import com.historymind.history_service.dto.Suggestion;
+import com.historymind.history_service.index.EventIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SuggestIndexTest {
+
+    private SimpleMeterRegistry registry;
+    private EventIndex eventIndex;
+    private SuggestIndex suggestIndex;
+
+    static EventDTO event(String id, List<String> persons, List<String> places) {
+        EventDTO dto = new EventDTO();
+        dto.setId(id);
+        dto.setPersons(persons);
+        dto.setPlaces(places);
+        dto.setKeywords(List.of("kháng chiến"));
+        return dto;
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        eventIndex = new EventIndex(100, registry);
+        eventIndex.ingest(List.of(
+                event("bach-dang", List.of("Trần Hưng Đạo"), List.of("Bạch Đằng")),
+                event("hich-tuong-si", List.of("Trần Hưng Đạo", "Trần Hưng Đạo"), List.of("Thăng Long")),
+                event("dien-hong", List.of("Trần Nhân Tông"), List.of("Thăng Long"))));
+        // an hour-long interval leaves rebuilding to the test after the initial build
+        suggestIndex = new SuggestIndex(true, Duration.ofHours(1), eventIndex, registry);
+        suggestIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggestIndex.close();
+    }
+
+    private static List<String> texts(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).toList();
+    }
+
+    @Test
+    void suggest_RanksByEventCount() {
+        List<Suggestion> suggestions = suggestIndex.suggest("Trần", 10);
+
+        assertEquals(List.of("Trần Hưng Đạo", "Trần Nhân Tông"), texts(suggestions));
+        assertEquals(2, suggestions.get(0).getCount());
+        assertEquals(SuggestIndex.PERSON, suggestions.get(0).getType());
+    }
+
+    @Test
+    void suggest_AccentFreePrefixMatchesAnyDiacritics() {
+        assertEquals(List.of("Thăng Long"), texts(suggestIndex.suggest("thang", 10)));
+        assertEquals(List.of("Trần Hưng Đạo"), texts(suggestIndex.suggest("tran hung", 10)));
+    }
+
+    @Test
+    void suggest_AccentedPrefixMustMatchAsTyped() {
+        assertTrue(suggestIndex.suggest("Thằng", 10).isEmpty());
+        assertEquals(List.of("kháng chiến"), texts(suggestIndex.suggest("khá", 10)));
+    }
+
+    @Test
+    void suggest_NewEventsAppearAfterRebuild() {
+        eventIndex.ingest(List.of(event("chi-lang", List.of("Lê Lợi"), List.of("Chi Lăng"))));
+        suggestIndex.rebuild();
+
+        assertEquals(List.of("Lê Lợi"), texts(suggestIndex.suggest("le", 10)));
+    }
+
+    @Test
+    void suggest_BlankPrefixOrDisabledIsEmpty() {
+        SuggestIndex disabled = new SuggestIndex(false, Duration.ofHours(1), eventIndex, new SimpleMeterRegistry());
+        disabled.rebuild();
+
+        assertTrue(suggestIndex.suggest("  ", 10).isEmpty());
+        assertTrue(disabled.suggest("Trần", 10).isEmpty());
+    }
+}
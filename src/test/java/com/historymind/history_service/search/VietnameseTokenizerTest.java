@@ -0,0 +1,39 @@
+package com.historymind.history_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VietnameseTokenizerTest {
+
+    @Test
+    void tokenize_SplitsSyllablesAndLowerCases() {
+        assertEquals(List.of("trận", "bạch", "đằng", "năm", "1288"),
+                VietnameseTokenizer.tokenize("Trận Bạch Đằng (năm 1288)!"));
+    }
+
+    @Test
+    void tokenize_DecomposedInputMatchesComposed() {
+        String decomposed = Normalizer.normalize("Hưng Đạo", Normalizer.Form.NFD);
+
+        assertEquals(List.of("hưng", "đạo"), VietnameseTokenizer.tokenize(decomposed));
+    }
+
+    @Test
+    void tokenize_NullOrEmptyIsEmpty() {
+        assertTrue(VietnameseTokenizer.tokenize(null).isEmpty());
+        assertTrue(VietnameseTokenizer.tokenize(" ,. ").isEmpty());
+    }
+
+    @Test
+    void fold_StripsTonesVowelMarksAndDStroke() {
+        assertEquals("tran", VietnameseTokenizer.fold("trần"));
+        assertEquals("dao", VietnameseTokenizer.fold("đạo"));
+        assertEquals("nguyen", VietnameseTokenizer.fold("nguyễn"));
+        assertTrue(VietnameseTokenizer.isFolded("hung"));
+        assertFalse(VietnameseTokenizer.isFolded("hưng"));
+    }
+}
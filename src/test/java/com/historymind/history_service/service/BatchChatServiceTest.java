@@ -0,0 +1,97 @@
+package com.historymind.history_service.service;
+
+import com.historymind.history_service.dto.BatchChatResult;
+import com.historymind.history_service.dto.ChatRequest;
+import com.historymind.history_service.dto.ChatResponse;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+public class BatchChatServiceTest {
+
+    private final ChatService chatService = Mockito.mock(ChatService.class);
+    private final BatchChatService batchChatService = new BatchChatService(chatService, 2, 5);
+
+    private static ChatResponse answer(String text) {
+        ChatResponse response = new ChatResponse();
+        response.setAnswer(text);
+        return response;
+    }
+
+    @Test
+    void processBatch_ReportsFailuresPerItem() {
+        Mockito.when(chatService.processChat(eq("ok"))).thenReturn(Mono.just(answer("fine")));
+        Mockito.when(chatService.processChat(eq("bad")))
+                .thenReturn(Mono.error(new RuntimeException("AI Service Error: 500")));
+
+        List<BatchChatResult> results = batchChatService
+                .processBatch(List.of(new ChatRequest("ok"), new ChatRequest("bad")))
+                .collectSortedList(Comparator.comparingInt(BatchChatResult::getIndex))
+                .block();
+
+        assertEquals("fine", results.get(0).getResponse().getAnswer());
+        assertNull(results.get(0).getError());
+        assertNull(results.get(1).getResponse());
+        assertEquals("AI Service Error: 500", results.get(1).getError());
+    }
+
+    @Test
+    void processBatch_DuplicateQueriesCallUpstreamOnce() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Mockito.when(chatService.processChat(anyString()))
+                .thenAnswer(inv -> Mono.just(answer(inv.getArgument(0)))
+                        .doOnSubscribe(s -> subscriptions.incrementAndGet()));
+
+        StepVerifier.create(batchChatService.processBatch(List.of(
+                        new ChatRequest("Năm 1945?"),
+                        new ChatRequest("năm 1945"),
+                        new ChatRequest("Năm 1954"))))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    @Test
+    void processBatch_RespectsConcurrencyCap() {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        Mockito.when(chatService.processChat(anyString()))
+                .thenAnswer(inv -> Mono.delay(Duration.ofMillis(50))
+                        .doOnSubscribe(s -> peak.accumulateAndGet(active.incrementAndGet(), Math::max))
+                        .doOnTerminate(active::decrementAndGet)
+                        .map(t -> answer(inv.getArgument(0))));
+
+        StepVerifier.create(batchChatService.processBatch(List.of(
+                        new ChatRequest("a"), new ChatRequest("b"), new ChatRequest("c"),
+                        new ChatRequest("d"), new ChatRequest("e"))))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    void processBatch_RejectsEmptyAndOversizedBatches() {
+        StepVerifier.create(batchChatService.processBatch(Collections.emptyList()))
+                .expectError(ResponseStatusException.class)
+                .verify();
+
+        List<ChatRequest> tooMany = Collections.nCopies(6, new ChatRequest("q"));
+        StepVerifier.create(batchChatService.processBatch(tooMany))
+                .expectError(ResponseStatusException.class)
+                .verify();
+    }
+}
@@ -1,17 +1,37 @@
 package com.historymind.history_service.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.historymind.history_service.cache.AnswerStore;
+import com.historymind.history_service.cache.ResponseCache;
+import com.historymind.history_service.codec.ChatResponseStreamDecoder;
 import com.historymind.history_service.dto.ChatResponse;
+import com.historymind.history_service.dto.ChatStreamEvent;
+import com.historymind.history_service.exception.DeadlineExceededException;
+import com.historymind.history_service.exception.ServiceOverloadedException;
+import com.historymind.history_service.resilience.AdaptiveConcurrencyLimiter;
+import com.historymind.history_service.resilience.CircuitBreaker;
+import com.historymind.history_service.resilience.Deadline;
+import com.historymind.history_service.resilience.HedgingPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -233,4 +253,270 @@ public class ChatServiceTest {
                 .expectError(RuntimeException.class)
                 .verify();
     }
+
+    @Test
+    void processChat_RepeatedNormalizedQueryServedFromCache() {
+        String jsonResponse = """
+                    {
+                        "query": "Trần Hưng Đạo là ai?",
+                        "intent": "person",
+                        "answer": "Trần Hưng Đạo là danh tướng nhà Trần.",
+                        "events": [],
+                        "no_data": false
+                    }
+                """;
+
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(jsonResponse)
+                .addHeader("Content-Type", "application/json"));
+
+        WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        ChatService cachingService = new ChatService(webClient,
+                new ResponseCache(true, 100, 5, AnswerStore.disabled(), new SimpleMeterRegistry()),
+                new ChatResponseStreamDecoder(new ObjectMapper()), List.of(), AdaptiveConcurrencyLimiter.unlimited(),
+                CircuitBreaker.disabled(), HedgingPolicy.disabled(), new SimpleMeterRegistry());
+
+        StepVerifier.create(cachingService.processChat("Trần Hưng Đạo là ai?"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(cachingService.processChat("  trần hưng đạo LÀ AI "))
+                .consumeNextWith(response -> assertEquals("person", response.getIntent()))
+                .verifyComplete();
+
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void processChat_ConcurrentIdenticalQueriesShareOneUpstreamCall() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"shared\", \"events\": []}")
+                .setBodyDelay(300, TimeUnit.MILLISECONDS)
+                .addHeader("Content-Type", "application/json"));
+
+        Mono<ChatResponse> both = Mono.zip(
+                        chatService.processChat("Năm 1285?"),
+                        chatService.processChat("năm 1285"))
+                .map(pair -> pair.getT2());
+
+        StepVerifier.create(both)
+                .consumeNextWith(response -> assertEquals("shared", response.getAnswer()))
+                .verifyComplete();
+
+        assertEquals(1, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void streamChat_EmitsIntentAnswerEventsThenDone() {
+        String jsonResponse = """
+                    {
+                        "query": "Năm 1288",
+                        "intent": "year",
+                        "answer": "Trận Bạch Đằng.",
+                        "events": [{"id": "e1", "year": 1288}, {"id": "e2", "year": 1288}],
+                        "no_data": false
+                    }
+                """;
+
+        mockWebServer.enqueue(new MockResponse()
+                .setBody(jsonResponse)
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(chatService.streamChat("Năm 1288"))
+                .consumeNextWith(e -> assertEquals("year", e.getIntent()))
+                .consumeNextWith(e -> assertEquals("Trận Bạch Đằng.", e.getText()))
+                .consumeNextWith(e -> assertEquals("e1", e.getEvent().getId()))
+                .consumeNextWith(e -> assertEquals("e2", e.getEvent().getId()))
+                .consumeNextWith(e -> {
+                    assertEquals(ChatStreamEvent.DONE, e.getType());
+                    assertFalse(e.getNoData());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void processChat_NotifiesListenersWithFreshAnswers() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"a\", \"events\": [{\"id\": \"e1\"}]}")
+                .addHeader("Content-Type", "application/json"));
+
+        List<String> seen = new ArrayList<>();
+        WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        ChatService listeningService = new ChatService(webClient, ResponseCache.disabled(),
+                new ChatResponseStreamDecoder(new ObjectMapper()),
+                List.of((query, response) -> seen.add(query + ":" + response.getEvents().get(0).getId()),
+                        (query, response) -> {
+                            throw new IllegalStateException("listener failure must not fail the request");
+                        }),
+                AdaptiveConcurrencyLimiter.unlimited(),
+                CircuitBreaker.disabled(), HedgingPolicy.disabled(), new SimpleMeterRegistry());
+
+        StepVerifier.create(listeningService.processChat("q"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertEquals(List.of("q:e1"), seen);
+    }
+
+    @Test
+    void passthroughChat_RelaysBodyWithNormalizedNoDataKey() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"events\": [], \"no_data\": true}")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(DataBufferUtils.join(chatService.passthroughChat("q"))
+                        .map(buffer -> buffer.toString(StandardCharsets.UTF_8)))
+                .expectNext("{\"query\": \"q\", \"events\": [], \"noData\": true}")
+                .verifyComplete();
+    }
+
+    @Test
+    void processChat_ExpiredDeadlineIsShedWithoutCallingUpstream() {
+        StepVerifier.create(chatService.processChat("q")
+                        .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, new Deadline(System.nanoTime() - 1))))
+                .expectError(DeadlineExceededException.class)
+                .verify();
+
+        assertEquals(0, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void streamChat_ForwardsRemainingDeadline() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"a\"}")
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(chatService.streamChat("q").then()
+                        .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(5)))))
+                .verifyComplete();
+
+        long forwardedMs = Long.parseLong(mockWebServer.takeRequest().getHeader("X-Request-Timeout-Ms"));
+        assertTrue(forwardedMs > 0 && forwardedMs <= 5000);
+    }
+
+    @Test
+    void processChat_ShortDeadlineOfOneCallerDoesNotFailCoalescedCallers() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"shared\"}")
+                .setBodyDelay(600, TimeUnit.MILLISECONDS)
+                .addHeader("Content-Type", "application/json"));
+
+        Mono<ChatResponse> hurried = chatService.processChat("q")
+                .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(200))));
+        Mono<ChatResponse> patient = chatService.processChat("q");
+
+        StepVerifier.create(Mono.zip(
+                        hurried.map(ChatResponse::getAnswer).onErrorResume(DeadlineExceededException.class,
+                                e -> Mono.just("deadline")),
+                        patient.map(ChatResponse::getAnswer)))
+                .consumeNextWith(pair -> {
+                    assertEquals("deadline", pair.getT1());
+                    assertEquals("shared", pair.getT2());
+                })
+                .verifyComplete();
+
+        assertEquals(1, mockWebServer.getRequestCount());
+        // the request was sent before the patient caller joined, so it carries the hurried budget
+        long forwardedMs = Long.parseLong(mockWebServer.takeRequest().getHeader("X-Request-Timeout-Ms"));
+        assertTrue(forwardedMs > 0 && forwardedMs <= 200, "forwarded " + forwardedMs);
+    }
+
+    @Test
+    void processChat_SharedCallForwardsLongestBudgetOfItsCallers() throws InterruptedException {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"slow\"}")
+                .setBodyDelay(800, TimeUnit.MILLISECONDS)
+                .addHeader("Content-Type", "application/json"));
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\", \"answer\": \"hedge\"}")
+                .addHeader("Content-Type", "application/json"));
+        WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ChatService hedging = new ChatService(webClient, ResponseCache.disabled(),
+                new ChatResponseStreamDecoder(new ObjectMapper()), List.of(), AdaptiveConcurrencyLimiter.unlimited(),
+                CircuitBreaker.disabled(), new HedgingPolicy(true, 0.95, 150, 150, 100, 256, registry), registry);
+
+        Mono<ChatResponse> first = hedging.processChat("q")
+                .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(1))));
+        Mono<ChatResponse> second = hedging.processChat("q")
+                .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofSeconds(5))));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .consumeNextWith(pair -> assertEquals("hedge", pair.getT2().getAnswer()))
+                .verifyComplete();
+
+        long primaryMs = Long.parseLong(mockWebServer.takeRequest().getHeader("X-Request-Timeout-Ms"));
+        long hedgeMs = Long.parseLong(mockWebServer.takeRequest().getHeader("X-Request-Timeout-Ms"));
+        assertTrue(primaryMs <= 1000, "primary " + primaryMs);
+        assertTrue(hedgeMs > 1000, "hedge " + hedgeMs);
+    }
+
+    @Test
+    void processChat_DeadlinePassingInFlightIsShed() {
+        mockWebServer.enqueue(new MockResponse()
+                .setBody("{\"query\": \"q\"}")
+                .setHeadersDelay(2, TimeUnit.SECONDS)
+                .addHeader("Content-Type", "application/json"));
+
+        StepVerifier.create(chatService.processChat("q")
+                        .contextWrite(ctx -> ctx.put(Deadline.CONTEXT_KEY, Deadline.after(Duration.ofMillis(200)))))
+                .expectError(DeadlineExceededException.class)
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void prefetchChat_BypassesLimiterAndBreakerAndSkipsWhileOpen() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(true, 1, 1, 1, 1.5, 0.2, 1, registry);
+        CircuitBreaker breaker = new CircuitBreaker(true, 2, 1, 0.5, 0.8, 10000, 30, 1, 60, registry);
+        WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        ChatService service = new ChatService(webClient, ResponseCache.disabled(),
+                new ChatResponseStreamDecoder(new ObjectMapper()), List.of(), limiter, breaker,
+                HedgingPolicy.disabled(), registry);
+        Sinks.One<String> foreground = Sinks.one();
+        limiter.limit(foreground.asMono()).subscribe();
+
+        // the only limiter permit is taken, yet the prefetch is sent, and its failure is not counted
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        StepVerifier.create(service.prefetchChat("q1"))
+                .expectErrorSatisfies(e -> assertFalse(e instanceof ServiceOverloadedException))
+                .verify();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, limiter.getInFlight());
+
+        foreground.tryEmitValue("done");
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        StepVerifier.create(service.processChat("q2")).expectError().verify();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        StepVerifier.create(service.prefetchChat("q3")).verifyComplete();
+        assertEquals(2, mockWebServer.getRequestCount());
+    }
+
+    @Test
+    void processChat_ServesAnswerStoredBeforeRestart(@TempDir Path dir) throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AnswerStore beforeRestart = new AnswerStore(true, dir.toString(), 1, 4, 24, new ObjectMapper(), registry);
+        ChatResponse answer = new ChatResponse();
+        answer.setAnswer("persisted");
+        new ResponseCache(true, 100, 5, beforeRestart, registry).put("q", answer);
+        beforeRestart.close();
+
+        AnswerStore store = new AnswerStore(true, dir.toString(), 1, 4, 24, new ObjectMapper(),
+                new SimpleMeterRegistry());
+        long giveUp = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!store.isLoaded() && System.nanoTime() < giveUp) {
+            Thread.sleep(10);
+        }
+        WebClient webClient = WebClient.builder().baseUrl(mockWebServer.url("/").toString()).build();
+        ChatService service = new ChatService(webClient,
+                new ResponseCache(true, 100, 5, store, new SimpleMeterRegistry()),
+                new ChatResponseStreamDecoder(new ObjectMapper()), List.of(), AdaptiveConcurrencyLimiter.unlimited(),
+                CircuitBreaker.disabled(), HedgingPolicy.disabled(), new SimpleMeterRegistry());
+
+        StepVerifier.create(service.processChat("q"))
+                .consumeNextWith(response -> assertEquals("persisted", response.getAnswer()))
+                .verifyComplete();
+        assertEquals(0, mockWebServer.getRequestCount());
+        store.close();
+    }
 }